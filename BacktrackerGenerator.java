@@ -0,0 +1,77 @@
+import java.util.*;
+
+// to generate mazes with the recursive backtracker (a randomized depth first
+// search), using an explicit int stack instead of recursion so that any size
+// fits; its mazes have long corridors and few dead ends
+class BacktrackerGenerator implements MazeGenerator {
+
+  // one bit per cell, set once the search has reached the cell
+  long[] seen = new long[0];
+
+  // the cells of the current path, the last one on top
+  int[] stack = new int[0];
+
+  // the unreached neighbors of the cell on top
+  final int[] options = new int[4];
+
+  // produces the perfect maze of the given size for the given seed
+  public MazeGrid generate(int width, int height, long seed) {
+    MazeGrid grid = new MazeGrid(width, height);
+    new BacktrackerGenerator().generate(grid, seed);
+    return grid;
+  }
+
+  // replaces the passages of the given grid with the maze for the given seed
+  public void generate(MazeGrid grid, long seed) {
+    int width = grid.width;
+    int height = grid.height;
+    if (this.stack.length != grid.cells()) {
+      this.seen = new long[(grid.cells() + 63) >>> 6];
+      this.stack = new int[grid.cells()];
+    }
+    else {
+      Arrays.fill(this.seen, 0L);
+    }
+    grid.clear();
+    SplittableRandom rand = new SplittableRandom(seed);
+    long[] seen = this.seen;
+    int[] stack = this.stack;
+    int[] options = this.options;
+    int top = 0;
+    stack[top++] = 0;
+    seen[0] |= 1L;
+
+    while (top > 0) {
+      int cell = stack[top - 1];
+      int x = grid.x(cell);
+      int y = grid.y(cell);
+      int n = 0;
+      if (x + 1 < width && !isSeen(seen, cell + 1)) {
+        options[n++] = cell + 1;
+      }
+      if (y + 1 < height && !isSeen(seen, cell + width)) {
+        options[n++] = cell + width;
+      }
+      if (x > 0 && !isSeen(seen, cell - 1)) {
+        options[n++] = cell - 1;
+      }
+      if (y > 0 && !isSeen(seen, cell - width)) {
+        options[n++] = cell - width;
+      }
+      if (n == 0) {
+        top--;
+      }
+      else {
+        int next = options[rand.nextInt(n)];
+        grid.open(grid.edgeId(cell, next));
+        seen[next >>> 6] |= 1L << next;
+        stack[top++] = next;
+      }
+    }
+  }
+
+  // determines if the given cell is set in the given bitset
+  static boolean isSeen(long[] seen, int cell) {
+    return (seen[cell >>> 6] & (1L << cell)) != 0;
+  }
+}
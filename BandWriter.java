@@ -0,0 +1,101 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+
+// to pack rows of a maze into the passage bits of the binary maze format,
+// writing them to a channel through one buffer as they arrive
+class BandWriter {
+
+  // the channel the maze goes to
+  final WritableByteChannel channel;
+
+  // the number of columns
+  final int width;
+
+  // the pending bytes
+  final ByteBuffer buffer = ByteBuffer.allocateDirect(MazeIO.BUFFER_BYTES)
+      .order(ByteOrder.LITTLE_ENDIAN);
+
+  // the bits not yet written, lowest first
+  long pending;
+
+  // the number of bits in pending
+  int pendingBits;
+
+  BandWriter(WritableByteChannel channel, int width, int height, long seed) {
+    this.channel = channel;
+    this.width = width;
+    this.buffer.putInt(MazeIO.MAGIC);
+    this.buffer.putShort(MazeIO.VERSION);
+    this.buffer.putShort((short) 0);
+    this.buffer.putInt(width);
+    this.buffer.putInt(height);
+    this.buffer.putLong(seed);
+  }
+
+  // spreads the 32 bits of v to the even bits of a long
+  static long spread(int v) {
+    long x = v & 0xFFFFFFFFL;
+    x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+    x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+    x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+    x = (x | (x << 2)) & 0x3333333333333333L;
+    return (x | (x << 1)) & 0x5555555555555555L;
+  }
+
+  // appends the rows of the given band, two bits per cell, 32 cells at a time
+  void write(RowBand band) throws IOException {
+    for (int r = 0; r < band.rows; r++) {
+      int base = r * band.words;
+      for (int x = 0; x < this.width; x += 32) {
+        long e = band.east[base + (x >>> 6)] >>> (x & 63);
+        long s = band.south[base + (x >>> 6)] >>> (x & 63);
+        int cells = Math.min(32, this.width - x);
+        long bits = spread((int) e) | (spread((int) s) << 1);
+        if (cells < 32) {
+          bits &= (1L << (2 * cells)) - 1;
+        }
+        this.append(bits, 2 * cells);
+      }
+    }
+  }
+
+  // appends the lowest n bits of the given bits, 1 <= n <= 64
+  void append(long bits, int n) throws IOException {
+    this.pending |= bits << this.pendingBits;
+    int total = this.pendingBits + n;
+    if (total >= 64) {
+      if (this.buffer.remaining() < 8) {
+        this.flush();
+      }
+      this.buffer.putLong(this.pending);
+      this.pending = this.pendingBits == 0 ? 0 : bits >>> (64 - this.pendingBits);
+      this.pendingBits = total - 64;
+    }
+    else {
+      this.pendingBits = total;
+    }
+  }
+
+  // writes every pending byte to the channel
+  void flush() throws IOException {
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      this.channel.write(this.buffer);
+    }
+    this.buffer.clear();
+  }
+
+  // writes the last partial bytes and flushes
+  void finish() throws IOException {
+    if (this.buffer.remaining() < 8) {
+      this.flush();
+    }
+    for (int b = 0; b < this.pendingBits; b += 8) {
+      this.buffer.put((byte) (this.pending >>> b));
+    }
+    this.pending = 0;
+    this.pendingBits = 0;
+    this.flush();
+  }
+}
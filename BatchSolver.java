@@ -0,0 +1,256 @@
+import java.util.*;
+
+// to answer many distance queries on one maze at once: a whole distance
+// field from one cell in one traversal, pair queries grouped by start cell,
+// and distance fields from up to 64 sources per traversal, with one bit lane
+// per source packed into a long per cell. Distances count passages and are
+// -1 for cells that cannot be reached; the buffers are allocated on first use
+// and reused by every later query
+class BatchSolver {
+
+  // the number of sources one bit-parallel traversal handles
+  static final int LANES = 64;
+
+  // the maze being queried
+  final MazeView maze;
+
+  // the BFS queue, every cell enters it at most once
+  final int[] queue;
+
+  // one bit per cell, set once the cell has been reached
+  final long[] seen;
+
+  // the distance of every reached cell
+  final int[] distance;
+
+  // the neighbors of the cell being expanded
+  final int[] next = new int[4];
+
+  // one bit per cell, set for the targets a pair query is still looking for
+  long[] wanted;
+
+  // the tree index of the maze when it has no loops, built on first use
+  TreeIndex index;
+
+  // whether the maze was found to have no loops, null until checked
+  Boolean forest;
+
+  // the lanes that have reached every cell, for the bit-parallel traversal
+  long[] reached;
+
+  // the lanes that reached every cell in the current level
+  long[] frontier;
+
+  // the lanes that reached every cell in the next level
+  long[] nextFrontier;
+
+  // the cells with a non-empty frontier in the current level
+  int[] active;
+
+  // the cells with a non-empty frontier in the next level
+  int[] nextActive;
+
+  BatchSolver(MazeView maze) {
+    this.maze = maze;
+    int cells = maze.cells();
+    this.queue = new int[cells];
+    this.seen = new long[(cells + 63) >>> 6];
+    this.distance = new int[cells];
+  }
+
+  // determines if the given cell has been reached
+  boolean hasSeen(int cell) {
+    return (this.seen[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  // writes the distance from source to every cell into out, produces out
+  int[] distances(int source, int[] out) {
+    this.bfs(source, 0);
+    for (int cell = 0; cell < out.length; cell++) {
+      out[cell] = this.hasSeen(cell) ? this.distance[cell] : -1;
+    }
+    return out;
+  }
+
+  // the distance from source to every cell
+  int[] distances(int source) {
+    return this.distances(source, new int[this.maze.cells()]);
+  }
+
+  // searches breadth first from source until every cell is reached or, when
+  // targets is positive, until that many wanted cells have been reached
+  void bfs(int source, int targets) {
+    Arrays.fill(this.seen, 0L);
+    int head = 0;
+    int tail = 0;
+    this.queue[tail++] = source;
+    this.seen[source >>> 6] |= 1L << source;
+    this.distance[source] = 0;
+    if (targets > 0 && this.isWanted(source) && --targets == 0) {
+      return;
+    }
+
+    while (head < tail) {
+      int cell = this.queue[head++];
+      int n = this.maze.neighbors(cell, this.next);
+      for (int i = 0; i < n; i++) {
+        int to = this.next[i];
+        if (!this.hasSeen(to)) {
+          this.seen[to >>> 6] |= 1L << to;
+          this.distance[to] = this.distance[cell] + 1;
+          this.queue[tail++] = to;
+          if (targets > 0 && this.isWanted(to) && --targets == 0) {
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  // determines if a pair query is looking for the given cell
+  boolean isWanted(int cell) {
+    return (this.wanted[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  // determines if the maze has no loops, so its tree index gives exact
+  // distances
+  boolean isForest() {
+    if (this.forest == null) {
+      this.index = new TreeIndex(this.maze);
+      long passages = 0;
+      int roots = 0;
+      for (int cell = 0; cell < this.maze.cells(); cell++) {
+        if (this.maze.hasEast(cell)) {
+          passages++;
+        }
+        if (this.maze.hasSouth(cell)) {
+          passages++;
+        }
+        if (this.index.parent[cell] == cell) {
+          roots++;
+        }
+      }
+      this.forest = passages + roots == this.maze.cells();
+      if (!this.forest) {
+        this.index = null;
+      }
+    }
+    return this.forest;
+  }
+
+  // the distance from starts[i] to targets[i] for every i: on a maze
+  // without loops through the tree index, otherwise with one breadth first
+  // search per distinct start that stops once all its targets are reached
+  int[] pairs(int[] starts, int[] targets) {
+    int k = starts.length;
+    int[] result = new int[k];
+    if (this.isForest()) {
+      for (int i = 0; i < k; i++) {
+        result[i] = this.index.distance(starts[i], targets[i]);
+      }
+      return result;
+    }
+
+    if (this.wanted == null) {
+      this.wanted = new long[this.seen.length];
+    }
+    long[] order = new long[k];
+    for (int i = 0; i < k; i++) {
+      order[i] = (long) starts[i] << 32 | i;
+    }
+    Arrays.sort(order);
+    int from = 0;
+    while (from < k) {
+      int start = (int) (order[from] >>> 32);
+      int to = from;
+      int distinct = 0;
+      while (to < k && (int) (order[to] >>> 32) == start) {
+        int target = targets[(int) order[to]];
+        if (!this.isWanted(target)) {
+          this.wanted[target >>> 6] |= 1L << target;
+          distinct++;
+        }
+        to++;
+      }
+      this.bfs(start, distinct);
+      for (int j = from; j < to; j++) {
+        int target = targets[(int) order[j]];
+        result[(int) order[j]] = this.hasSeen(target) ? this.distance[target] : -1;
+        this.wanted[target >>> 6] &= ~(1L << target);
+      }
+      from = to;
+    }
+    return result;
+  }
+
+  // the distance from every given source to every cell, out[i][cell] for
+  // sources[i]; up to 64 sources share one traversal, each in its own lane
+  int[][] distancesFrom(int[] sources) {
+    int cells = this.maze.cells();
+    int[][] out = new int[sources.length][cells];
+    if (this.reached == null) {
+      this.reached = new long[cells];
+      this.frontier = new long[cells];
+      this.nextFrontier = new long[cells];
+      this.active = new int[cells];
+      this.nextActive = new int[cells];
+    }
+    for (int base = 0; base < sources.length; base += LANES) {
+      int lanes = Math.min(LANES, sources.length - base);
+      for (int lane = 0; lane < lanes; lane++) {
+        Arrays.fill(out[base + lane], -1);
+      }
+      this.lanes(sources, base, lanes, out);
+    }
+    return out;
+  }
+
+  // runs one bit-parallel traversal from sources[base .. base + lanes)
+  void lanes(int[] sources, int base, int lanes, int[][] out) {
+    Arrays.fill(this.reached, 0L);
+    Arrays.fill(this.frontier, 0L);
+    Arrays.fill(this.nextFrontier, 0L);
+    int count = 0;
+    for (int lane = 0; lane < lanes; lane++) {
+      int source = sources[base + lane];
+      if (this.frontier[source] == 0) {
+        this.active[count++] = source;
+      }
+      this.frontier[source] |= 1L << lane;
+      this.reached[source] |= 1L << lane;
+      out[base + lane][source] = 0;
+    }
+
+    for (int level = 1; count > 0; level++) {
+      int nextCount = 0;
+      for (int i = 0; i < count; i++) {
+        int cell = this.active[i];
+        long bits = this.frontier[cell];
+        this.frontier[cell] = 0;
+        int n = this.maze.neighbors(cell, this.next);
+        for (int j = 0; j < n; j++) {
+          int to = this.next[j];
+          long fresh = bits & ~this.reached[to];
+          if (fresh != 0) {
+            this.reached[to] |= fresh;
+            if (this.nextFrontier[to] == 0) {
+              this.nextActive[nextCount++] = to;
+            }
+            this.nextFrontier[to] |= fresh;
+            while (fresh != 0) {
+              out[base + Long.numberOfTrailingZeros(fresh)][to] = level;
+              fresh &= fresh - 1;
+            }
+          }
+        }
+      }
+      int[] swap = this.active;
+      this.active = this.nextActive;
+      this.nextActive = swap;
+      long[] swapBits = this.frontier;
+      this.frontier = this.nextFrontier;
+      this.nextFrontier = swapBits;
+      count = nextCount;
+    }
+  }
+}
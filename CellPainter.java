@@ -0,0 +1,6 @@
+import java.awt.Color;
+
+// to paint a cell of a maze with a color
+interface CellPainter {
+  void paint(int cell, Color color);
+}
@@ -0,0 +1,82 @@
+import java.util.*;
+
+// to represent a disjoint-set forest over the ints 0 .. size - 1, using union by
+// rank and path compression so that every operation is nearly constant time
+class DisjointSet {
+
+  // the parent of every element, an element is a root when it is its own parent
+  final int[] parent;
+
+  // an upper bound on the height of the tree under every root
+  final byte[] rank;
+
+  // the number of disjoint sets
+  int sets;
+
+  DisjointSet(int size) {
+    this.parent = new int[size];
+    this.rank = new byte[size];
+    this.reset();
+  }
+
+  // puts every element back into a set of its own
+  void reset() {
+    for (int i = 0; i < this.parent.length; i++) {
+      this.parent[i] = i;
+    }
+    Arrays.fill(this.rank, (byte) 0);
+    this.sets = this.parent.length;
+  }
+
+  // finds the representative of the given element, pointing every element on
+  // the way directly at it
+  int find(int a) {
+    int root = a;
+    while (this.parent[root] != root) {
+      root = this.parent[root];
+    }
+    while (this.parent[a] != root) {
+      int next = this.parent[a];
+      this.parent[a] = root;
+      a = next;
+    }
+    return root;
+  }
+
+  // merges the sets of the two given elements, produces false if they were
+  // already in the same set
+  boolean union(int a, int b) {
+    if (!this.link(a, b)) {
+      return false;
+    }
+    this.sets--;
+    return true;
+  }
+
+  // merges the sets of the two given elements without counting the sets,
+  // produces false if they were already in the same set; threads may link
+  // at once as long as they touch the trees of different elements
+  boolean link(int a, int b) {
+    int ra = this.find(a);
+    int rb = this.find(b);
+    if (ra == rb) {
+      return false;
+    }
+    if (this.rank[ra] < this.rank[rb]) {
+      this.parent[ra] = rb;
+    }
+    else if (this.rank[ra] > this.rank[rb]) {
+      this.parent[rb] = ra;
+    }
+    else {
+      this.parent[rb] = ra;
+      this.rank[ra]++;
+    }
+    return true;
+  }
+
+  // determines if the two given elements are in the same set
+  boolean connected(int a, int b) {
+    return this.find(a) == this.find(b);
+  }
+}
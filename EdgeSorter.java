@@ -0,0 +1,90 @@
+import java.util.*;
+
+// to sort edge ids by their weights without boxing or comparators: a single
+// counting sort when the weights span a small range, otherwise a byte-wise
+// LSD radix sort. Both are stable, so equal weights keep their id order when
+// the ids start out ascending
+class EdgeSorter {
+
+  // the largest weight range always sorted with one counting pass
+  static final int COUNTING_LIMIT = 1 << 16;
+
+  // the number of buckets per radix pass
+  static final int RADIX = 256;
+
+  // the bucket counts, reused between sorts
+  int[] counts = new int[RADIX + 1];
+
+  // the output buffer, reused between sorts
+  int[] scratch = new int[0];
+
+  // sorts the first n ids by weights[id]; weights must not be negative
+  void sort(int[] ids, int n, int[] weights) {
+    int max = 0;
+    for (int i = 0; i < n; i++) {
+      int w = weights[ids[i]];
+      if (w < 0) {
+        throw new IllegalArgumentException("Negative edge weight: " + w);
+      }
+      max = Math.max(max, w);
+    }
+    if (this.scratch.length < n) {
+      this.scratch = new int[n];
+    }
+    if (max < COUNTING_LIMIT || max < n) {
+      this.countingSort(ids, n, weights, max + 1);
+    }
+    else {
+      this.radixSort(ids, n, weights, max);
+    }
+  }
+
+  // sorts the first n ids by weights in [0, range) with one counting pass
+  void countingSort(int[] ids, int n, int[] weights, int range) {
+    if (this.counts.length < range + 1) {
+      this.counts = new int[range + 1];
+    }
+    int[] count = this.counts;
+    Arrays.fill(count, 0, range + 1, 0);
+    for (int i = 0; i < n; i++) {
+      count[weights[ids[i]] + 1]++;
+    }
+    for (int w = 0; w < range; w++) {
+      count[w + 1] += count[w];
+    }
+    for (int i = 0; i < n; i++) {
+      int id = ids[i];
+      this.scratch[count[weights[id]]++] = id;
+    }
+    System.arraycopy(this.scratch, 0, ids, 0, n);
+  }
+
+  // sorts the first n ids by weights up to max, eight bits per pass
+  void radixSort(int[] ids, int n, int[] weights, int max) {
+    if (this.counts.length < RADIX + 1) {
+      this.counts = new int[RADIX + 1];
+    }
+    int[] count = this.counts;
+    int[] from = ids;
+    int[] to = this.scratch;
+    for (int shift = 0; shift < 32 && (max >>> shift) != 0; shift += 8) {
+      Arrays.fill(count, 0, RADIX + 1, 0);
+      for (int i = 0; i < n; i++) {
+        count[((weights[from[i]] >>> shift) & (RADIX - 1)) + 1]++;
+      }
+      for (int d = 0; d < RADIX; d++) {
+        count[d + 1] += count[d];
+      }
+      for (int i = 0; i < n; i++) {
+        int id = from[i];
+        to[count[(weights[id] >>> shift) & (RADIX - 1)]++] = id;
+      }
+      int[] swap = from;
+      from = to;
+      to = swap;
+    }
+    if (from != ids) {
+      System.arraycopy(from, 0, ids, 0, n);
+    }
+  }
+}
@@ -0,0 +1,48 @@
+// to draw edge weights from a counter-based hash of (seed, edge id) instead of
+// a sequential random stream: the weight of an edge depends on nothing else,
+// so sequential builders, tiles and worker threads all see the same weights
+// for the same seed no matter in which order or on which thread they ask
+class EdgeWeights {
+
+  // the golden-ratio increment of SplitMix64
+  static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+  // the SplitMix64 finalizer, a bijective scramble of the bits of z
+  static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  // the weight in [0, bound) of the edge with the given id for the given seed
+  static int weight(long seed, int edge, int bound) {
+    long bits = mix(seed + GAMMA * (edge + 1L)) >>> 33;
+    return (int) ((bits * bound) >>> 31);
+  }
+
+  // the weight of the edge with the given id for the given seed, below
+  // eastBound for an east edge and below southBound for a south edge
+  static int weight(long seed, int edge, int eastBound, int southBound) {
+    return weight(seed, edge, (edge & 1) == MazeGrid.EAST ? eastBound : southBound);
+  }
+
+  // the seed that follows the given one, for regenerating reproducibly
+  static long next(long seed) {
+    return mix(seed + GAMMA);
+  }
+
+  // fills weights[id] for every candidate edge id of the given grid
+  static void fill(MazeGrid grid, long seed, int bound, int[] weights) {
+    fill(grid, seed, bound, bound, weights);
+  }
+
+  // fills weights[id] for every candidate edge id of the given grid, below
+  // eastBound for east edges and below southBound for south edges
+  static void fill(MazeGrid grid, long seed, int eastBound, int southBound, int[] weights) {
+    for (int edge = 0; edge < grid.edgeIds(); edge++) {
+      if (grid.isCandidate(edge)) {
+        weights[edge] = weight(seed, edge, eastBound, southBound);
+      }
+    }
+  }
+}
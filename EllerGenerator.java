@@ -0,0 +1,176 @@
+import java.util.*;
+
+// to generate mazes with Eller's algorithm, one row at a time: only the set
+// every cell of the current row belongs to is kept, so memory stays O(width)
+// however many rows are generated, and rows can be streamed to a RowSink
+// without ever holding the whole maze
+class EllerGenerator implements MazeGenerator {
+
+  // the set label of every cell of the current row
+  int[] label = new int[0];
+
+  // the union-find parent of every label while joining a row
+  int[] parent;
+
+  // the number of cells of the row in every set
+  int[] members;
+
+  // the cell of every set that goes south when no other cell of the set does
+  int[] pick;
+
+  // whether every set already has a passage south
+  boolean[] down;
+
+  // the label every set of the row gets in the next row
+  int[] remap;
+
+  // the east passages of the row, one bit per cell
+  long[] east;
+
+  // the south passages of the row, one bit per cell
+  long[] south;
+
+  // the grid generate last wrote into, and the sink writing rows into it
+  MazeGrid target;
+  RowSink fill;
+
+  // produces the perfect maze of the given size for the given seed
+  public MazeGrid generate(int width, int height, long seed) {
+    MazeGrid grid = new MazeGrid(width, height);
+    new EllerGenerator().generate(grid, seed);
+    return grid;
+  }
+
+  // replaces the passages of the given grid with the maze for the given seed
+  public void generate(MazeGrid grid, long seed) {
+    if (this.target != grid) {
+      this.target = grid;
+      this.fill = (y, east, south) -> {
+        for (int x = 0; x < grid.width; x++) {
+          int cell = grid.index(x, y);
+          if ((east[x >>> 6] & (1L << x)) != 0) {
+            grid.open(2 * cell + MazeGrid.EAST);
+          }
+          if ((south[x >>> 6] & (1L << x)) != 0) {
+            grid.open(2 * cell + MazeGrid.SOUTH);
+          }
+        }
+      };
+    }
+    grid.clear();
+    this.stream(grid.width, grid.height, seed, this.fill);
+  }
+
+  // generates the perfect maze of the given size for the given seed and hands
+  // every row to the given sink as soon as it is final; the row buffers are
+  // kept for the next maze of the same width
+  void stream(int width, int height, long seed, RowSink sink) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Maze dimensions must be positive: "
+          + width + "x" + height);
+    }
+    SplittableRandom rand = new SplittableRandom(seed);
+    if (this.label.length != width) {
+      this.label = new int[width];
+      this.parent = new int[width];
+      this.members = new int[width];
+      this.pick = new int[width];
+      this.down = new boolean[width];
+      this.remap = new int[width];
+      this.east = new long[(width + 63) >>> 6];
+      this.south = new long[this.east.length];
+    }
+    int[] label = this.label;
+    int[] parent = this.parent;
+    int[] members = this.members;
+    int[] pick = this.pick;
+    boolean[] down = this.down;
+    int[] remap = this.remap;
+    long[] east = this.east;
+    long[] south = this.south;
+    Arrays.fill(east, 0L);
+    Arrays.fill(south, 0L);
+    for (int x = 0; x < width; x++) {
+      label[x] = x;
+    }
+
+    for (int y = 0; y < height; y++) {
+      boolean last = y == height - 1;
+
+      // join neighbors of different sets, all of them in the last row
+      for (int l = 0; l < width; l++) {
+        parent[l] = l;
+      }
+      for (int x = 0; x + 1 < width; x++) {
+        int a = find(parent, label[x]);
+        int b = find(parent, label[x + 1]);
+        if (a != b && (last || rand.nextBoolean())) {
+          parent[b] = a;
+          east[x >>> 6] |= 1L << x;
+        }
+      }
+      for (int x = 0; x < width; x++) {
+        label[x] = find(parent, label[x]);
+      }
+
+      // open passages south, at least one for every set
+      if (!last) {
+        Arrays.fill(members, 0);
+        Arrays.fill(down, false);
+        for (int x = 0; x < width; x++) {
+          int l = label[x];
+          members[l]++;
+          if (rand.nextInt(members[l]) == 0) {
+            pick[l] = x;
+          }
+          if (rand.nextBoolean()) {
+            south[x >>> 6] |= 1L << x;
+            down[l] = true;
+          }
+        }
+        for (int x = 0; x < width; x++) {
+          int l = label[x];
+          if (!down[l] && pick[l] == x) {
+            south[x >>> 6] |= 1L << x;
+            down[l] = true;
+          }
+        }
+      }
+
+      sink.row(y, east, south);
+
+      // the next row: cells below a south passage keep their set, the others
+      // start a new one, and labels are renumbered to stay below width
+      Arrays.fill(remap, -1);
+      int next = 0;
+      for (int x = 0; x < width; x++) {
+        if ((south[x >>> 6] & (1L << x)) != 0) {
+          int l = label[x];
+          if (remap[l] < 0) {
+            remap[l] = next++;
+          }
+          label[x] = remap[l];
+        }
+        else {
+          label[x] = -1;
+        }
+      }
+      for (int x = 0; x < width; x++) {
+        if (label[x] < 0) {
+          label[x] = next++;
+        }
+      }
+      Arrays.fill(east, 0L);
+      Arrays.fill(south, 0L);
+    }
+  }
+
+  // finds the representative of the given label, halving the path on the way
+  static int find(int[] parent, int l) {
+    while (parent[l] != l) {
+      parent[l] = parent[parent[l]];
+      l = parent[l];
+    }
+    return l;
+  }
+}
@@ -0,0 +1,10 @@
+// to represent a generated maze together with the seed it came from
+class GeneratedMaze {
+  long seed;
+  MazeGrid grid;
+
+  GeneratedMaze(long seed, MazeGrid grid) {
+    this.seed = seed;
+    this.grid = grid;
+  }
+}
@@ -0,0 +1,477 @@
+import java.util.*;
+import java.util.stream.*;
+
+// to solve a maze with breadth or depth first search over cell indices: the
+// frontier, the parents, the visited bitset, the expansion trace and the path
+// all live in arrays allocated once, so a solve allocates nothing. Every
+// search is measured into metrics and handed to the listener when it ends.
+// The weighted searches find cheapest paths under MazeCosts instead
+class GridSolver {
+
+  // the maze being solved
+  final MazeView maze;
+
+  // the BFS queue or DFS stack, every cell enters it at most once
+  final int[] frontier;
+
+  // the cell every visited cell was reached from
+  final int[] parent;
+
+  // one bit per cell, set once the cell has been reached
+  final long[] seen;
+
+  // the cells in the order they were expanded
+  final int[] trace;
+
+  // the number of cells in trace
+  int traceLength;
+
+  // the cells of the last path found, start first
+  final int[] path;
+
+  // the number of cells in path, 0 when the target was not reached
+  int pathLength;
+
+  // the number of times a search looked at a cell it had already reached
+  int wrongMoves;
+
+  // the number of cells the last search expanded
+  int expanded;
+
+  // the largest number of cells the frontier of the last search held at once
+  int peakFrontier;
+
+  // the measurements of the last search, overwritten by every search
+  final SearchMetrics metrics = new SearchMetrics();
+
+  // told about every finished search, or null
+  SearchListener listener;
+
+  // the open set of A*, keyed by estimated path length through the cell
+  IntMinHeap open;
+
+  // the steps from the start to every reached cell, for A*
+  int[] distance;
+
+  // the frontier of the backward half of a bidirectional search
+  int[] frontierBack;
+
+  // the cell every cell reached backward was reached from
+  int[] parentBack;
+
+  // one bit per cell, set once the backward search has reached the cell
+  long[] seenBack;
+
+  // one bit per cell, set once a weighted search has settled the cell
+  long[] settled;
+
+  // the ring buffer of the 0-1 BFS deque, a power of two long
+  int[] deque;
+
+  // the cost of the last path found by a weighted search
+  int pathCost;
+
+  // the neighbors of the cell being expanded
+  final int[] next = new int[4];
+
+  GridSolver(MazeView maze) {
+    this.maze = maze;
+    int cells = maze.cells();
+    this.frontier = new int[cells];
+    this.parent = new int[cells];
+    this.seen = new long[(cells + 63) >>> 6];
+    this.trace = new int[cells];
+    this.path = new int[cells];
+  }
+
+  // forgets the previous search
+  void reset() {
+    Arrays.fill(this.seen, 0L);
+    this.traceLength = 0;
+    this.pathLength = 0;
+    this.wrongMoves = 0;
+    this.expanded = 0;
+    this.peakFrontier = 0;
+    this.pathCost = 0;
+  }
+
+  // forgets the previous search and starts measuring one with the given algorithm
+  void begin(String algorithm) {
+    this.reset();
+    this.metrics.start(algorithm);
+  }
+
+  // stops measuring the running search, tells the listener about it and
+  // produces whether the target was found
+  boolean finish(boolean found) {
+    this.metrics.finish(found, this.expanded, this.wrongMoves, this.peakFrontier,
+        this.pathLength);
+    if (this.listener != null) {
+      this.listener.searched(this.metrics);
+    }
+    return found;
+  }
+
+  // records that the frontier holds the given number of cells
+  void frontierSize(int size) {
+    if (size > this.peakFrontier) {
+      this.peakFrontier = size;
+    }
+  }
+
+  // marks the given cell as reached from the given parent
+  void reach(int cell, int from) {
+    this.seen[cell >>> 6] |= 1L << cell;
+    this.parent[cell] = from;
+  }
+
+  // determines if the given cell has been reached
+  boolean hasSeen(int cell) {
+    return (this.seen[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  // records that the given cell is being expanded
+  void expand(int cell) {
+    this.trace[this.traceLength++] = cell;
+    this.expanded++;
+  }
+
+  // the Manhattan distance between the two given cells, a lower bound on the
+  // number of steps between them
+  int manhattan(int a, int b) {
+    int w = this.maze.width();
+    return Math.abs(a % w - b % w) + Math.abs(a / w - b / w);
+  }
+
+  // searches breadth first from start to target, produces whether it was reached
+  boolean bfs(int start, int target) {
+    this.begin("bfs");
+    int head = 0;
+    int tail = 0;
+    this.frontier[tail++] = start;
+    this.reach(start, -1);
+
+    while (head < tail) {
+      int cell = this.frontier[head++];
+      this.expand(cell);
+      if (cell == target) {
+        this.initPath(start, target);
+        return this.finish(true);
+      }
+      int n = this.maze.neighbors(cell, this.next);
+      for (int i = 0; i < n; i++) {
+        int to = this.next[i];
+        if (!this.hasSeen(to)) {
+          this.reach(to, cell);
+          this.frontier[tail++] = to;
+        }
+        else {
+          this.wrongMoves++;
+        }
+      }
+      this.frontierSize(tail - head);
+    }
+    return this.finish(false);
+  }
+
+  // searches depth first from start to target, produces whether it was reached
+  boolean dfs(int start, int target) {
+    this.begin("dfs");
+    int top = 0;
+    this.frontier[top++] = start;
+    this.reach(start, -1);
+
+    while (top > 0) {
+      int cell = this.frontier[--top];
+      this.expand(cell);
+      if (cell == target) {
+        this.initPath(start, target);
+        return this.finish(true);
+      }
+      int n = this.maze.neighbors(cell, this.next);
+      for (int i = 0; i < n; i++) {
+        int to = this.next[i];
+        if (!this.hasSeen(to)) {
+          this.reach(to, cell);
+          this.frontier[top++] = to;
+        }
+        else {
+          this.wrongMoves++;
+        }
+      }
+      this.frontierSize(top);
+    }
+    return this.finish(false);
+  }
+
+  // searches with A* from start to target guided by the Manhattan distance,
+  // produces whether the target was reached
+  boolean astar(int start, int target) {
+    this.begin("astar");
+    if (this.open == null) {
+      this.open = new IntMinHeap(this.parent.length);
+      this.distance = new int[this.parent.length];
+    }
+    this.open.clear();
+    this.reach(start, -1);
+    this.distance[start] = 0;
+    this.open.offer(start, this.manhattan(start, target));
+
+    while (!this.open.isEmpty()) {
+      int cell = this.open.poll();
+      this.expand(cell);
+      if (cell == target) {
+        this.initPath(start, target);
+        return this.finish(true);
+      }
+      int n = this.maze.neighbors(cell, this.next);
+      for (int i = 0; i < n; i++) {
+        int to = this.next[i];
+        int d = this.distance[cell] + 1;
+        if (!this.hasSeen(to) || d < this.distance[to]) {
+          this.reach(to, cell);
+          this.distance[to] = d;
+          this.open.offer(to, d + this.manhattan(to, target));
+        }
+        else {
+          this.wrongMoves++;
+        }
+      }
+      this.frontierSize(this.open.size);
+    }
+    return this.finish(false);
+  }
+
+  // searches breadth first from both start and target at once, one whole
+  // level of the smaller frontier at a time, and produces whether the two
+  // searches met; the path found is a shortest one
+  boolean bidirectional(int start, int target) {
+    this.begin("bidirectional");
+    if (this.frontierBack == null) {
+      this.frontierBack = new int[this.parent.length];
+      this.parentBack = new int[this.parent.length];
+      this.seenBack = new long[this.seen.length];
+    }
+    Arrays.fill(this.seenBack, 0L);
+    if (start == target) {
+      this.expand(start);
+      this.initPath(start, target);
+      return this.finish(true);
+    }
+    this.reach(start, -1);
+    this.seenBack[target >>> 6] |= 1L << target;
+    this.parentBack[target] = -1;
+    this.frontier[0] = start;
+    this.frontierBack[0] = target;
+    int head = 0;
+    int tail = 1;
+    int headBack = 0;
+    int tailBack = 1;
+    int meet = -1;
+
+    while (meet < 0 && head < tail && headBack < tailBack) {
+      this.frontierSize(tail - head + tailBack - headBack);
+      if (tail - head <= tailBack - headBack) {
+        int end = tail;
+        while (head < end) {
+          int cell = this.frontier[head++];
+          this.expand(cell);
+          int n = this.maze.neighbors(cell, this.next);
+          for (int i = 0; i < n; i++) {
+            int to = this.next[i];
+            if (this.hasSeen(to)) {
+              this.wrongMoves++;
+            }
+            else {
+              this.reach(to, cell);
+              this.frontier[tail++] = to;
+              if (meet < 0 && (this.seenBack[to >>> 6] & (1L << to)) != 0) {
+                meet = to;
+              }
+            }
+          }
+        }
+      }
+      else {
+        int end = tailBack;
+        while (headBack < end) {
+          int cell = this.frontierBack[headBack++];
+          this.expand(cell);
+          int n = this.maze.neighbors(cell, this.next);
+          for (int i = 0; i < n; i++) {
+            int to = this.next[i];
+            if ((this.seenBack[to >>> 6] & (1L << to)) != 0) {
+              this.wrongMoves++;
+            }
+            else {
+              this.seenBack[to >>> 6] |= 1L << to;
+              this.parentBack[to] = cell;
+              this.frontierBack[tailBack++] = to;
+              if (meet < 0 && this.hasSeen(to)) {
+                meet = to;
+              }
+            }
+          }
+        }
+      }
+    }
+    if (meet < 0) {
+      return this.finish(false);
+    }
+
+    this.initPath(start, meet);
+    for (int cell = this.parentBack[meet]; cell >= 0; cell = this.parentBack[cell]) {
+      this.path[this.pathLength++] = cell;
+    }
+    return this.finish(true);
+  }
+
+  // allocates the arrays of the weighted searches on first use and clears
+  // the settled cells
+  void initWeighted() {
+    if (this.open == null) {
+      this.open = new IntMinHeap(this.parent.length);
+      this.distance = new int[this.parent.length];
+    }
+    if (this.settled == null) {
+      this.settled = new long[this.seen.length];
+      this.deque = new int[Integer.highestOneBit(2 * this.parent.length) << 1];
+    }
+    Arrays.fill(this.settled, 0L);
+  }
+
+  // the id of the edge between the given adjacent cells
+  int edgeBetween(int a, int b) {
+    return MazeGrid.edgeId(this.maze.width(), this.maze.height(), a, b);
+  }
+
+  // marks the given cell as settled, produces false if it already was
+  boolean settle(int cell) {
+    long bit = 1L << cell;
+    if ((this.settled[cell >>> 6] & bit) != 0) {
+      return false;
+    }
+    this.settled[cell >>> 6] |= bit;
+    return true;
+  }
+
+  // searches for a cheapest path from start to target under the given costs,
+  // with 0-1 BFS when every step costs 0 or 1 and with Dijkstra otherwise
+  boolean cheapest(int start, int target, MazeCosts costs) {
+    return costs.isBinary() ? this.zeroOne(start, target, costs)
+        : this.dijkstra(start, target, costs);
+  }
+
+  // searches for a cheapest path from start to target under the given costs
+  // with Dijkstra, produces whether the target was reached
+  boolean dijkstra(int start, int target, MazeCosts costs) {
+    this.begin("dijkstra");
+    this.initWeighted();
+    this.open.clear();
+    this.reach(start, -1);
+    this.distance[start] = 0;
+    this.open.offer(start, 0);
+
+    while (!this.open.isEmpty()) {
+      int cell = this.open.poll();
+      this.settle(cell);
+      this.expand(cell);
+      if (cell == target) {
+        this.initPath(start, target);
+        this.pathCost = this.distance[target];
+        return this.finish(true);
+      }
+      int n = this.maze.neighbors(cell, this.next);
+      for (int i = 0; i < n; i++) {
+        int to = this.next[i];
+        int d = this.distance[cell] + costs.step(this.edgeBetween(cell, to), to);
+        if (!this.hasSeen(to) || d < this.distance[to]) {
+          this.reach(to, cell);
+          this.distance[to] = d;
+          this.open.offer(to, d);
+        }
+        else {
+          this.wrongMoves++;
+        }
+      }
+      this.frontierSize(this.open.size);
+    }
+    return this.finish(false);
+  }
+
+  // searches for a cheapest path from start to target under the given costs
+  // with 0-1 BFS: a cell reached for free goes to the front of the deque and
+  // one reached for 1 to its back, so cells leave it in order of distance
+  boolean zeroOne(int start, int target, MazeCosts costs) {
+    if (!costs.isBinary()) {
+      throw new IllegalArgumentException("0-1 BFS needs step costs of 0 or 1, not up to "
+          + costs.maxStep());
+    }
+    this.begin("zeroOne");
+    this.initWeighted();
+    int mask = this.deque.length - 1;
+    int head = 0;
+    int tail = 0;
+    this.reach(start, -1);
+    this.distance[start] = 0;
+    this.deque[tail++ & mask] = start;
+
+    while (head != tail) {
+      int cell = this.deque[head++ & mask];
+      if (!this.settle(cell)) {
+        continue;
+      }
+      this.expand(cell);
+      if (cell == target) {
+        this.initPath(start, target);
+        this.pathCost = this.distance[target];
+        return this.finish(true);
+      }
+      int n = this.maze.neighbors(cell, this.next);
+      for (int i = 0; i < n; i++) {
+        int to = this.next[i];
+        int step = costs.step(this.edgeBetween(cell, to), to);
+        int d = this.distance[cell] + step;
+        if (!this.hasSeen(to) || d < this.distance[to]) {
+          this.reach(to, cell);
+          this.distance[to] = d;
+          if (step == 0) {
+            this.deque[--head & mask] = to;
+          }
+          else {
+            this.deque[tail++ & mask] = to;
+          }
+        }
+        else {
+          this.wrongMoves++;
+        }
+      }
+      this.frontierSize(tail - head);
+    }
+    return this.finish(false);
+  }
+
+  // writes the cells from start to target into path by following the parents
+  void initPath(int start, int target) {
+    int length = 1;
+    for (int c = target; c != start; c = this.parent[c]) {
+      length++;
+    }
+    this.pathLength = length;
+    int cell = target;
+    for (int i = length - 1; i >= 0; i--) {
+      this.path[i] = cell;
+      cell = this.parent[cell];
+    }
+  }
+
+  // the cells in the order they were expanded
+  IntStream traceStream() {
+    return Arrays.stream(this.trace, 0, this.traceLength);
+  }
+
+  // the cells of the last path found, start first
+  IntStream pathStream() {
+    return Arrays.stream(this.path, 0, this.pathLength);
+  }
+}
@@ -0,0 +1,121 @@
+import java.util.*;
+
+// to represent a binary min-heap of the ints 0 .. capacity - 1 keyed by int
+// priorities, indexed so that the key of an element already in the heap can
+// be lowered in place; nothing is allocated after construction
+class IntMinHeap {
+
+  // the elements in heap order
+  final int[] heap;
+
+  // the key of every element
+  final int[] keys;
+
+  // the position of every element in heap, -1 when it is not in the heap
+  final int[] pos;
+
+  // the number of elements in the heap
+  int size;
+
+  IntMinHeap(int capacity) {
+    this.heap = new int[capacity];
+    this.keys = new int[capacity];
+    this.pos = new int[capacity];
+    Arrays.fill(this.pos, -1);
+  }
+
+  // determines if the heap has no elements
+  boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  // determines if the given element is in the heap
+  boolean contains(int item) {
+    return this.pos[item] >= 0;
+  }
+
+  // removes every element
+  void clear() {
+    for (int i = 0; i < this.size; i++) {
+      this.pos[this.heap[i]] = -1;
+    }
+    this.size = 0;
+  }
+
+  // inserts the given element with the given key, or lowers its key if it is
+  // already in the heap with a larger one; produces whether the heap changed
+  boolean offer(int item, int key) {
+    int i = this.pos[item];
+    if (i < 0) {
+      i = this.size++;
+      this.heap[i] = item;
+      this.pos[item] = i;
+    }
+    else if (key >= this.keys[item]) {
+      return false;
+    }
+    this.keys[item] = key;
+    this.siftUp(i);
+    return true;
+  }
+
+  // the element with the smallest key, ties broken by heap order
+  int peek() {
+    return this.heap[0];
+  }
+
+  // removes and produces the element with the smallest key
+  int poll() {
+    int top = this.heap[0];
+    this.pos[top] = -1;
+    int last = this.heap[--this.size];
+    if (this.size > 0) {
+      this.heap[0] = last;
+      this.pos[last] = 0;
+      this.siftDown(0);
+    }
+    return top;
+  }
+
+  // moves the element at position i up until its parent is not larger
+  void siftUp(int i) {
+    int item = this.heap[i];
+    int key = this.keys[item];
+    while (i > 0) {
+      int p = (i - 1) >>> 1;
+      int above = this.heap[p];
+      if (this.keys[above] <= key) {
+        break;
+      }
+      this.heap[i] = above;
+      this.pos[above] = i;
+      i = p;
+    }
+    this.heap[i] = item;
+    this.pos[item] = i;
+  }
+
+  // moves the element at position i down until no child is smaller
+  void siftDown(int i) {
+    int item = this.heap[i];
+    int key = this.keys[item];
+    while (true) {
+      int c = 2 * i + 1;
+      if (c >= this.size) {
+        break;
+      }
+      if (c + 1 < this.size && this.keys[this.heap[c + 1]] < this.keys[this.heap[c]]) {
+        c++;
+      }
+      int below = this.heap[c];
+      if (this.keys[below] >= key) {
+        break;
+      }
+      this.heap[i] = below;
+      this.pos[below] = i;
+      i = c;
+    }
+    this.heap[i] = item;
+    this.pos[item] = i;
+  }
+}
@@ -0,0 +1,95 @@
+import java.util.*;
+
+// to build a perfect maze into a MazeGrid with randomized Kruskal: the candidate
+// edges are read in weight order with a cursor, and an edge becomes a passage
+// when it joins two different sets of the disjoint-set forest
+class KruskalBuilder {
+
+  // the grid the passages are written into
+  final MazeGrid grid;
+
+  // the connected regions of the grid so far
+  final DisjointSet sets;
+
+  // the id of every candidate edge of the grid
+  final int[] edges;
+
+  // sorts the candidate edges by weight
+  final EdgeSorter sorter = new EdgeSorter();
+
+  // the weight of every edge id, allocated by the first call of weigh
+  int[] weights;
+
+  KruskalBuilder(MazeGrid grid) {
+    this.grid = grid;
+    this.sets = new DisjointSet(grid.cells());
+    this.edges = new int[2 * grid.cells() - grid.width - grid.height];
+    this.listEdges();
+  }
+
+  // writes the id of every candidate edge into edges, in increasing order
+  void listEdges() {
+    int n = 0;
+    for (int edge = 0; edge < this.grid.edgeIds(); edge++) {
+      if (this.grid.isCandidate(edge)) {
+        this.edges[n++] = edge;
+      }
+    }
+  }
+
+  // turns every edge of the grid back into a wall and every cell back into
+  // its own set, with the candidate edges in id order, so that the next
+  // maze is built in the buffers of this one
+  void reset() {
+    this.grid.clear();
+    this.sets.reset();
+    this.listEdges();
+  }
+
+  // sorts the candidate edges by the given weights, where weights[id] is the
+  // weight of the edge with that id; equal weights keep their edge id order
+  void sort(int[] weights) {
+    this.sorter.sort(this.edges, this.edges.length, weights);
+  }
+
+  // gives every candidate edge the weight below bound that EdgeWeights draws
+  // for the given seed, and sorts by it
+  void weigh(long seed, int bound) {
+    this.weigh(seed, bound, bound);
+  }
+
+  // gives every candidate edge the weight EdgeWeights draws for the given
+  // seed, below eastBound for east edges and below southBound for south
+  // edges, and sorts by it
+  void weigh(long seed, int eastBound, int southBound) {
+    if (this.weights == null) {
+      this.weights = new int[this.grid.edgeIds()];
+    }
+    EdgeWeights.fill(this.grid, seed, eastBound, southBound, this.weights);
+    this.sort(this.weights);
+  }
+
+  // opens the passages of the spanning tree, stopping as soon as cells - 1
+  // edges are accepted, and produces the number of passages opened
+  int build() {
+    int target = this.grid.cells() - 1;
+    int accepted = 0;
+    for (int cursor = 0; cursor < this.edges.length && accepted < target; cursor++) {
+      int edge = this.edges[cursor];
+      if (this.sets.union(this.grid.edgeFrom(edge), this.grid.edgeTo(edge))) {
+        this.grid.open(edge);
+        accepted++;
+      }
+    }
+    return accepted;
+  }
+
+  // produces the perfect maze of the given size for the given seed; the same
+  // seed and size always produce the same maze
+  static MazeGrid generate(int width, int height, long seed, int bound) {
+    KruskalBuilder builder = new KruskalBuilder(new MazeGrid(width, height));
+    builder.weigh(seed, bound);
+    builder.build();
+    return builder.grid;
+  }
+}
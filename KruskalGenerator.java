@@ -0,0 +1,32 @@
+// to generate mazes with randomized Kruskal, as the Maze world does
+class KruskalGenerator implements MazeGenerator {
+
+  // the bound of the random edge weights
+  int bound;
+
+  // the Kruskal buffers of the last grid generated into
+  KruskalBuilder builder;
+
+  KruskalGenerator() {
+    this(100);
+  }
+
+  KruskalGenerator(int bound) {
+    this.bound = bound;
+  }
+
+  // produces the perfect maze of the given size for the given seed
+  public MazeGrid generate(int width, int height, long seed) {
+    return KruskalBuilder.generate(width, height, seed, this.bound);
+  }
+
+  // replaces the passages of the given grid with the maze for the given seed
+  public void generate(MazeGrid into, long seed) {
+    if (this.builder == null || this.builder.grid != into) {
+      this.builder = new KruskalBuilder(into);
+    }
+    this.builder.reset();
+    this.builder.weigh(seed, this.bound);
+    this.builder.build();
+  }
+}
@@ -0,0 +1,183 @@
+import java.util.*;
+import java.util.function.*;
+
+// to represent a list whose elements are produced by a source the first time
+// the list is read, and forgotten again by refresh: the Vertex and Edge views
+// of a Maze are kept in lists like this, so a maze holds none of their
+// objects until something reads them. Every read builds the list first, and
+// so does every write, so that a write is never lost to a later build
+class LazyList<T> extends ArrayList<T> {
+
+  private static final long serialVersionUID = 1L;
+
+  // produces the elements of the list
+  final transient Supplier<? extends Collection<T>> source;
+
+  // whether the elements have been produced since the last refresh
+  boolean built;
+
+  LazyList(Supplier<? extends Collection<T>> source) {
+    this.source = source;
+  }
+
+  // produces the elements from the source unless they already are
+  void build() {
+    if (!this.built) {
+      this.built = true;
+      super.addAll(this.source.get());
+    }
+  }
+
+  // forgets the elements and their storage, the next read produces them
+  // again from the source
+  void refresh() {
+    super.clear();
+    super.trimToSize();
+    this.built = false;
+  }
+
+  public int size() {
+    this.build();
+    return super.size();
+  }
+
+  public boolean isEmpty() {
+    this.build();
+    return super.isEmpty();
+  }
+
+  public T get(int index) {
+    this.build();
+    return super.get(index);
+  }
+
+  public T set(int index, T element) {
+    this.build();
+    return super.set(index, element);
+  }
+
+  public boolean add(T element) {
+    this.build();
+    return super.add(element);
+  }
+
+  public void add(int index, T element) {
+    this.build();
+    super.add(index, element);
+  }
+
+  public boolean addAll(Collection<? extends T> c) {
+    this.build();
+    return super.addAll(c);
+  }
+
+  public boolean addAll(int index, Collection<? extends T> c) {
+    this.build();
+    return super.addAll(index, c);
+  }
+
+  public T remove(int index) {
+    this.build();
+    return super.remove(index);
+  }
+
+  public boolean remove(Object o) {
+    this.build();
+    return super.remove(o);
+  }
+
+  public boolean removeAll(Collection<?> c) {
+    this.build();
+    return super.removeAll(c);
+  }
+
+  public boolean retainAll(Collection<?> c) {
+    this.build();
+    return super.retainAll(c);
+  }
+
+  public boolean removeIf(Predicate<? super T> filter) {
+    this.build();
+    return super.removeIf(filter);
+  }
+
+  public void replaceAll(UnaryOperator<T> operator) {
+    this.build();
+    super.replaceAll(operator);
+  }
+
+  public void sort(Comparator<? super T> c) {
+    this.build();
+    super.sort(c);
+  }
+
+  public void clear() {
+    super.clear();
+    this.built = true;
+  }
+
+  public boolean contains(Object o) {
+    this.build();
+    return super.contains(o);
+  }
+
+  public int indexOf(Object o) {
+    this.build();
+    return super.indexOf(o);
+  }
+
+  public int lastIndexOf(Object o) {
+    this.build();
+    return super.lastIndexOf(o);
+  }
+
+  public Object[] toArray() {
+    this.build();
+    return super.toArray();
+  }
+
+  public <A> A[] toArray(A[] a) {
+    this.build();
+    return super.toArray(a);
+  }
+
+  public Iterator<T> iterator() {
+    this.build();
+    return super.iterator();
+  }
+
+  public ListIterator<T> listIterator() {
+    this.build();
+    return super.listIterator();
+  }
+
+  public ListIterator<T> listIterator(int index) {
+    this.build();
+    return super.listIterator(index);
+  }
+
+  public List<T> subList(int from, int to) {
+    this.build();
+    return super.subList(from, to);
+  }
+
+  public void forEach(Consumer<? super T> action) {
+    this.build();
+    super.forEach(action);
+  }
+
+  public Spliterator<T> spliterator() {
+    this.build();
+    return super.spliterator();
+  }
+
+  public boolean equals(Object o) {
+    this.build();
+    return super.equals(o);
+  }
+
+  public int hashCode() {
+    this.build();
+    return super.hashCode();
+  }
+}
@@ -0,0 +1,59 @@
+// to count non-negative values in power of two buckets: bucket 0 holds 0 and
+// bucket b holds the values from 2^(b-1) to 2^b - 1
+class LogHistogram {
+  final long[] buckets = new long[65];
+  long count;
+  long sum;
+  long max;
+
+  // adds the given value, negative values are not counted
+  void record(long value) {
+    if (value < 0) {
+      return;
+    }
+    this.buckets[64 - Long.numberOfLeadingZeros(value)]++;
+    this.count++;
+    this.sum += value;
+    this.max = Math.max(this.max, value);
+  }
+
+  // an upper bound on the given fraction of the values, exact up to a
+  // factor of two
+  long percentile(double p) {
+    long rank = (long) Math.ceil(p * this.count);
+    long seen = 0;
+    for (int b = 0; b < this.buckets.length; b++) {
+      seen += this.buckets[b];
+      if (seen >= rank && seen > 0) {
+        return b == 0 ? 0 : Math.min(this.max, b == 64 ? Long.MAX_VALUE : (1L << b) - 1);
+      }
+    }
+    return 0;
+  }
+
+  // the mean of the values, 0 when there are none
+  double mean() {
+    return this.count == 0 ? 0 : (double) this.sum / this.count;
+  }
+
+  // produces this histogram as a JSON object, the bucket list ends at the
+  // last bucket holding a value
+  String toJson() {
+    int last = this.buckets.length - 1;
+    while (last >= 0 && this.buckets[last] == 0) {
+      last--;
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append("{\"count\":").append(this.count).append(",\"sum\":").append(this.sum)
+        .append(",\"max\":").append(this.max).append(",\"p50\":").append(this.percentile(0.5))
+        .append(",\"p90\":").append(this.percentile(0.9)).append(",\"p99\":")
+        .append(this.percentile(0.99)).append(",\"buckets\":[");
+    for (int b = 0; b <= last; b++) {
+      if (b > 0) {
+        sb.append(',');
+      }
+      sb.append(this.buckets[b]);
+    }
+    return sb.append("]}").toString();
+  }
+}
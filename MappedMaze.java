@@ -0,0 +1,175 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+// to represent a read-only maze answered straight from the first record of a
+// file in the binary maze format. The file is mapped from offset 0 in chunks
+// whose boundaries are multiples of CHUNK_BYTES, so every chunk starts on a
+// page boundary, and the passage bits are row-major, so sweeping a row reads
+// the mapping sequentially. Cells are addressed with longs, which lets the
+// maze exceed both the heap and the int range; the int MazeView methods work
+// for mazes of up to Integer.MAX_VALUE cells, and cells() rejects larger ones
+class MappedMaze implements MazeView, Closeable {
+
+  // the size of every mapped chunk but the last, a multiple of any page size
+  static final long CHUNK_BYTES = 1L << 30;
+
+  // the file the maze is mapped from
+  final FileChannel channel;
+
+  // the mapped chunks of the file
+  final MappedByteBuffer[] chunks;
+
+  // the number of columns
+  final int width;
+
+  // the number of rows
+  final int height;
+
+  // the seed the maze was generated from
+  final long seed;
+
+  MappedMaze(Path file) throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(MazeIO.HEADER_BYTES)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (this.channel.read(header, header.position()) < 0) {
+          throw new EOFException("Truncated maze header in " + file);
+        }
+      }
+      header.flip();
+      if (header.getInt() != MazeIO.MAGIC) {
+        throw new IOException("Not a maze file: " + file);
+      }
+      short version = header.getShort();
+      if (version != MazeIO.VERSION) {
+        throw new IOException("Unsupported maze format version " + version);
+      }
+      header.getShort();
+      this.width = header.getInt();
+      this.height = header.getInt();
+      this.seed = header.getLong();
+
+      long end = MazeIO.HEADER_BYTES + MazeIO.dataBytes(this.width, this.height);
+      if (this.channel.size() < end) {
+        throw new EOFException("Truncated maze record in " + file);
+      }
+      this.chunks = new MappedByteBuffer[(int) ((end + CHUNK_BYTES - 1) / CHUNK_BYTES)];
+      for (int i = 0; i < this.chunks.length; i++) {
+        long start = i * CHUNK_BYTES;
+        this.chunks[i] = this.channel.map(FileChannel.MapMode.READ_ONLY, start,
+            Math.min(CHUNK_BYTES, end - start));
+      }
+      long stray = this.strayEdge();
+      if (stray >= 0) {
+        throw new IOException("Passage out of the " + this.width + "x" + this.height
+            + " maze at edge id " + stray + " in " + file);
+      }
+    }
+    catch (IOException | RuntimeException e) {
+      this.channel.close();
+      throw e;
+    }
+  }
+
+  // the number of columns
+  public int width() {
+    return this.width;
+  }
+
+  // the number of rows
+  public int height() {
+    return this.height;
+  }
+
+  // the number of cells, which may exceed the int range
+  public long cellCount() {
+    return (long) this.width * this.height;
+  }
+
+  // the index of the cell at the given coordinates
+  long index(int x, int y) {
+    return (long) y * this.width + x;
+  }
+
+  // determines if the bit with the given index of the passage bits is set
+  boolean bit(long bit) {
+    long offset = MazeIO.HEADER_BYTES + (bit >>> 3);
+    byte b = this.chunks[(int) (offset / CHUNK_BYTES)].get((int) (offset % CHUNK_BYTES));
+    return ((b >>> (bit & 7)) & 1) != 0;
+  }
+
+  // the lowest set passage bit that is not the id of a candidate edge, as
+  // for MazeGrid.strayEdge; -1 when every set bit is a candidate
+  long strayEdge() {
+    long stray = -1;
+    for (int y = 0; y < this.height && stray < 0; y++) {
+      long edge = 2 * this.index(this.width - 1, y) + MazeGrid.EAST;
+      if (this.bit(edge)) {
+        stray = edge;
+      }
+    }
+    for (int x = 0; x < this.width; x++) {
+      long edge = 2 * this.index(x, this.height - 1) + MazeGrid.SOUTH;
+      if (this.bit(edge)) {
+        return stray < 0 ? edge : Math.min(stray, edge);
+      }
+    }
+    long bits = 8 * MazeIO.dataBytes(this.width, this.height);
+    for (long edge = 2 * this.cellCount(); edge < bits && stray < 0; edge++) {
+      if (this.bit(edge)) {
+        stray = edge;
+      }
+    }
+    return stray;
+  }
+
+  // determines if the given cell has a passage to its east neighbor
+  public boolean hasEast(long cell) {
+    return this.bit(2 * cell + MazeGrid.EAST);
+  }
+
+  // determines if the given cell has a passage to its south neighbor
+  public boolean hasSouth(long cell) {
+    return this.bit(2 * cell + MazeGrid.SOUTH);
+  }
+
+  // determines if the given cell has a passage to its east neighbor
+  public boolean hasEast(int cell) {
+    return this.hasEast((long) cell);
+  }
+
+  // determines if the given cell has a passage to its south neighbor
+  public boolean hasSouth(int cell) {
+    return this.hasSouth((long) cell);
+  }
+
+  // asks the operating system to page the whole maze in ahead of a solve
+  void load() {
+    for (MappedByteBuffer chunk : this.chunks) {
+      chunk.load();
+    }
+  }
+
+  // copies the maze onto the heap, for mazes that fit there
+  MazeGrid toGrid() {
+    MazeGrid grid = new MazeGrid(this.width, this.height);
+    for (int cell = 0; cell < grid.cells(); cell++) {
+      if (this.hasEast(cell)) {
+        grid.open(2 * cell + MazeGrid.EAST);
+      }
+      if (this.hasSouth(cell)) {
+        grid.open(2 * cell + MazeGrid.SOUTH);
+      }
+    }
+    return grid;
+  }
+
+  // closes the file; the mapping itself is released by the garbage collector
+  public void close() throws IOException {
+    this.channel.close();
+  }
+}
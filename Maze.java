@@ -1,4 +1,7 @@
 import java.util.*;
+import java.io.*;
+import java.nio.channels.*;
+import java.util.concurrent.*;
 
 import tester.*;
 import javalib.impworld.*;
@@ -41,34 +44,38 @@ class Vertex {
 
   // determines if this Vertex has a path to the given Vertex
   boolean hasPathTo(Vertex b) {
-    for (Edge e : this.outEdges) {
-      if (e.to.equals(b) || e.to.hasPathTo(b)) {
-        return true;
-      }
-    }
-    return false;
+    return this.reaches(b, false);
   }
   
   // determines if this Vertex has a path to the given Vertex
   boolean hasPathBetween(Vertex to) {
-    Deque<Vertex> alreadySeen = new ArrayDeque<Vertex>();
-    Deque<Vertex> worklist = new ArrayDeque<Vertex>();
-    
+    return this.reaches(to, true);
+  }
+
+  // determines if the given target can be reached by following outEdges
+  // breadth first from this Vertex; this Vertex itself only counts as
+  // reached when includeThis is true, otherwise at least one Edge must be
+  // followed. A Vertex with a negative coordinate is not a cell of a maze, so
+  // it reaches nothing and is never reached
+  boolean reaches(Vertex target, boolean includeThis) {
+    if (this.x < 0 || this.y < 0 || target.x < 0 || target.y < 0) {
+      return false;
+    }
+    if (includeThis && this.equals(target)) {
+      return true;
+    }
+    HashSet<Vertex> seen = new HashSet<Vertex>();
+    ArrayDeque<Vertex> worklist = new ArrayDeque<Vertex>();
     worklist.add(this);
-    
     while (!worklist.isEmpty()) {
       Vertex next = worklist.remove();
-      
-      if (next.equals(to)) {
-        return true;
-        
-      } else if (!alreadySeen.contains(next)) {
-        
-        for (Edge e : next.outEdges) {
+      for (Edge e : next.outEdges) {
+        if (e.to.equals(target)) {
+          return true;
+        }
+        if (e.to.x >= 0 && e.to.y >= 0 && seen.add(e.to)) {
           worklist.add(e.to);
         }
-        
-        alreadySeen.add(next);
       }
     }
     return false;
@@ -157,21 +164,57 @@ class Edge {
 }
 
 // to represent the Forbidden Island world
-class Maze extends World {
+class Maze extends World implements CellPainter {
+
+  // Defines an int constant: the number of rows of a maze made without a size
+  static final int MAZE_HEIGHT = 15;
+
+  // Defines an int constant: the number of columns of a maze made without a size
+  static final int MAZE_WIDTH = 20;
+
+  // scale for the vertex size of a maze made without a size
+  static final int SCALE_HEIGHT = 600 / MAZE_HEIGHT;
+  
+  static final int SCALE_WIDTH = 1000 / MAZE_WIDTH;
+
+  // the color of the target cell and of the solution path
+  static final Color PATH_COLOR = new Color(177, 156, 217);
+
+  // the color of the start cell
+  static final Color START_COLOR = new Color(128, 206, 225);
+
+  // the color of every other cell
+  static final Color CELL_COLOR = new Color(255, 255, 255);
 
-  // Defines an int constant
-  static int MAZE_HEIGHT = 15;
+  // the time a tick may spend revealing cells in frame budget mode
+  static final long FRAME_BUDGET_NANOS = 8_000_000L;
 
-  // Defines an int constant
-  static int MAZE_WIDTH = 20;
+  // the number of colors of the distance heat map
+  static final int HEAT_STEPS = 32;
 
-  // scale for the vertex size
-  static int SCALE_HEIGHT = 600 / MAZE_HEIGHT;
+  // the number of cells from which build joins the regions of the maze in
+  // tiles on several cores, four tiles of ParallelKruskal
+  static final int PARALLEL_CELLS = 4 * ParallelKruskal.DEFAULT_TILE
+      * ParallelKruskal.DEFAULT_TILE;
+
+  // the seed the edge weights of this maze are drawn from
+  long seed;
   
-  static int SCALE_WIDTH = 1000 / MAZE_WIDTH;
+  // the algorithm that generates this maze, null for the Kruskal steps of
+  // build
+  MazeGenerator generator;
+
+  // the number of rows of this maze
+  int height;
+
+  // the number of columns of this maze
+  int width;
+
+  // the height in pixels of a cell of this maze
+  int scaleHeight;
 
-  // random nummber generator
-  Random rand = new Random();
+  // the width in pixels of a cell of this maze
+  int scaleWidth;
 
   // sets the random number weight for the y edges
   int yNum = 100;
@@ -179,167 +222,338 @@ class Maze extends World {
   // sets the random number weight for the x edges
   int xNum = 100;
 
-  // represents the initial vertices
-  ArrayList<ArrayList<Vertex>> vertices = new ArrayList<ArrayList<Vertex>>(MAZE_WIDTH);
+  // to represent the color of every cell, rows first
+  Color[] colors;
 
-  // represents the vertices
-  ArrayList<Vertex> vert = new ArrayList<Vertex>(MAZE_WIDTH * MAZE_HEIGHT);
-
-  // to represent the tree
-  HashMap<Vertex, Vertex> rep = new HashMap<Vertex, Vertex>();
-
-  // to represent the edges in the tree
-  ArrayList<Edge> edges = new ArrayList<Edge>();
-
-  // to represent the edges sorted by weights
-  ArrayList<Edge> workList = new ArrayList<Edge>();
+  // to represent the search state: frontier, parents, trace and path
+  GridSolver solver;
+  
+  // to represent the regions joined by build, kept for connectivity queries
+  DisjointSet sets;
+  
+  // to represent the Kruskal steps of build: the candidate edges in weight
+  // order and the regions joined so far, reused between mazes
+  KruskalBuilder builder;
+  
+  // to represent the connectivity queries on the maze
+  Reachability reachability;
+  
+  // to represent the spanning tree of the maze indexed for path queries
+  TreeIndex index;
   
-  // to represent a stack or queue
-  Deque<Vertex> deque = new ArrayDeque<Vertex>();
+  // to represent the costs of the weighted search, unit costs until set
+  MazeCosts costs;
   
-  // to represent the edges in the graph used to get to the current vertex
-  HashMap<Vertex, Edge>  cameFromEdge = new HashMap<Vertex, Edge>();
+  // to represent the batch distance queries on the maze
+  BatchSolver batch;
   
-  // to represent the path of the solved maze
-  LinkedList<Vertex> path = new LinkedList<Vertex>();
+  // to represent the difficulty statistics of the maze, computed on first use
+  MazeStats stats;
   
-  //to represent all vertex cells visited by search
-  LinkedList<Vertex> visited = new LinkedList<Vertex>();
+  // to represent the grid the statistics were computed for
+  MazeGrid statsGrid;
+  
+  // to represent the replay of the last search
+  Playback playback = new Playback(Color.LIGHT_GRAY, PATH_COLOR);
 
-  // to represent the edges that compose the maze
-  ArrayList<Edge> maze = new ArrayList<Edge>();
+  // to represent the passages of the maze as a compact grid graph
+  MazeGrid grid;
+  
+  // to represent the measurements of every search run in this world
+  MetricsRecorder metrics = new MetricsRecorder();
+  
+  // to represent the painted image of the maze, reused between frames
+  MazeRenderer renderer;
+  
+  // to represent the image of the score
+  WorldImage score;
   
-  // to represent wrong moves score
-  Integer wrongmoves;
+  // to represent the number of searches when the score image was made
+  long scoreShown;
   
-  // to represent whether the search is active
-  boolean active;
+  // to represent the cell searches start from
+  Vertex start;
   
-  // to represent whether the graph is solved
-  boolean solved;
+  // to represent the cell searches look for
+  Vertex target;
+
+  // the generators picked with the keys 1 to 5, made on first pick and kept
+  // by this world, so their buffers are reused for its grid only
+  MazeGenerator[] generators = new MazeGenerator[5];
+  
+  // represents the initial vertices: a Vertex view of every cell, rows
+  // first, with outEdges for its passages, built from the grid when read
+  LazyList<ArrayList<Vertex>> vertices = new LazyList<ArrayList<Vertex>>(this::vertexRows);
+
+  // represents the vertices: the views of vertices in one list, rows first
+  LazyList<Vertex> vert = new LazyList<Vertex>(this::vertexList);
+
+  // to represent the tree: the representative of every Vertex, a view over
+  // the regions of the maze
+  Map<Vertex, Vertex> rep = new RepView(this);
+
+  // to represent the edges in the tree: an Edge view of every passage with
+  // its weight, built from the grid when read
+  LazyList<Edge> edges = new LazyList<Edge>(this::passageEdges);
+
+  // to represent the edges sorted by weights: an Edge view of every
+  // candidate edge with its weight, in the order build reads them
+  LazyList<Edge> workList = new LazyList<Edge>(this::candidateEdges);
+
+  // to represent the edges that compose the maze: an Edge view of every
+  // wall between the views of vertices, built from the grid when read
+  LazyList<Edge> maze = new LazyList<Edge>(() -> this.walls(this.vertices));
   
 
   Maze() {
-    this.active = false;
-    this.solved = false;
-    this.wrongmoves = 0;
-    this.initVertex();
-    this.initEdges();
-    this.initWorkList();
-    this.initRep();
+    this.seed = new Random().nextLong();
+    this.initSize(MAZE_WIDTH, MAZE_HEIGHT);
+    this.initGrid();
     this.build();
-    this.initMaze();
     this.makeScene();
   }
   
   Maze(int col, int row) {
-    MAZE_HEIGHT = row;
-    MAZE_WIDTH = col;
-    SCALE_HEIGHT = 600 / row;
-    SCALE_WIDTH = 1000 / col;
-    this.wrongmoves = 0;
-    this.active = false;
-    this.solved = false;
-    this.initVertex();
-    this.initEdges();
-    this.initWorkList();
-    this.initRep();
+    this(col, row, new Random().nextLong());
+  }
+  
+  // builds the maze of the given size for the given seed; the same seed and
+  // size always build the same maze
+  Maze(int col, int row, long seed) {
+    this.seed = seed;
+    this.initSize(col, row);
+    this.initGrid();
     this.build();
-    this.initMaze();
     this.makeScene();
   }
 
-  // to initialize the vertices
-  void initVertex() {
-    for (int i = 0; i < MAZE_HEIGHT; i++) {
-      ArrayList<Vertex> alv = new ArrayList<Vertex>(MAZE_HEIGHT);
-      for (int j = 0; j < MAZE_WIDTH; j++) {
-        if (i == 0 && j == 0) {
-          alv.add(j, new Vertex(j, i, new Color(128, 206, 225)));
-        } else if (j == MAZE_WIDTH - 1 && i == MAZE_HEIGHT - 1) {
-          alv.add(j, new Vertex(j, i, new Color(177, 156, 217)));
-        } else {
-          alv.add(j, new Vertex(j, i));
-        }
-      }
-      this.vertices.add(i, alv);
+  // builds the maze of the given size for the given seed with the given generator
+  Maze(int col, int row, long seed, MazeGenerator generator) {
+    this(generator.generate(col, row, seed), seed);
+    this.generator = generator;
+  }
+
+  // loads the given maze
+  Maze(MazeGrid grid) {
+    this(grid, 0);
+  }
+
+  // loads the given maze generated from the given seed, for example one read
+  // back with MazeReader, so that regenerating it stays reproducible
+  Maze(MazeGrid grid, long seed) {
+    this.seed = seed;
+    this.initSize(grid.width, grid.height);
+    this.grid = grid;
+    this.initColors();
+    this.makeScene();
+  }
+
+  // to set the size of this maze and of its cells, which fill a 1000 by 600
+  // window
+  void initSize(int col, int row) {
+    this.width = col;
+    this.height = row;
+    this.scaleWidth = MazeRaster.scaleFor(1000, col);
+    this.scaleHeight = MazeRaster.scaleFor(600, row);
+  }
+
+  // to make the empty grid of the size of this maze and color its cells
+  void initGrid() {
+    this.grid = new MazeGrid(this.width, this.height);
+    this.initColors();
+  }
+
+  // to give every cell its starting color, and to put the start and target
+  // back in the corners
+  void initColors() {
+    int cells = this.grid.cells();
+    if (this.colors == null || this.colors.length != cells) {
+      this.colors = new Color[cells];
+    }
+    Arrays.fill(this.colors, CELL_COLOR);
+    this.colors[0] = START_COLOR;
+    this.colors[cells - 1] = PATH_COLOR;
+    if (this.start == null || this.start.x != 0 || this.start.y != 0) {
+      this.start = this.vertex(0);
     }
+    if (this.target == null || this.grid.index(this.target.x, this.target.y) != cells - 1) {
+      this.target = this.vertex(cells - 1);
+    }
+    this.start.color = START_COLOR;
+    this.target.color = PATH_COLOR;
+  }
 
-    for (int a = 0; a < MAZE_HEIGHT; a++) {
-      for (int b = 0; b < MAZE_WIDTH; b++) {
-        this.vert.add(this.vertices.get(a).get(b));
-      }
+  // to open the passages of the maze for its seed, with the generator when
+  // one was picked and with randomized Kruskal otherwise: every candidate
+  // edge gets a weight drawn from the seed, and the edges are accepted in
+  // weight order while they join two regions; from PARALLEL_CELLS cells on,
+  // the regions are joined in tiles on several cores
+  void build() {
+    if (this.generator != null) {
+      this.generator.generate(this.grid, this.seed);
+      this.sets = null;
+      return;
     }
+    if (this.grid.cells() >= PARALLEL_CELLS) {
+      ParallelKruskalGenerator parallel = (ParallelKruskalGenerator) this.generator(5);
+      parallel.eastBound = this.yNum;
+      parallel.southBound = this.xNum;
+      parallel.generate(this.grid, this.seed);
+      this.sets = parallel.sets;
+      return;
+    }
+    if (this.builder == null || this.builder.grid != this.grid) {
+      this.builder = new KruskalBuilder(this.grid);
+    }
+    this.builder.reset();
+    this.builder.weigh(this.seed, this.yNum, this.xNum);
+    this.builder.build();
+    this.sets = this.builder.sets;
   }
 
-  // to initialize the vertices with Edges
-  void initEdges() {
-    for (int i = 0; i < MAZE_HEIGHT; i++) {
-      for (int j = 0; j < MAZE_WIDTH; j++) {
-        this.createVertex(i, j);
+  // the generator picked with the given key from 1 to 5, made on first pick
+  MazeGenerator generator(int key) {
+    if (this.generators[key - 1] == null) {
+      if (key == 1) {
+        this.generators[0] = new KruskalGenerator();
+      }
+      else if (key == 2) {
+        this.generators[1] = new BacktrackerGenerator();
+      }
+      else if (key == 3) {
+        this.generators[2] = new WilsonGenerator();
+      }
+      else if (key == 4) {
+        this.generators[3] = new EllerGenerator();
+      }
+      else {
+        this.generators[4] = new ParallelKruskalGenerator();
       }
     }
+    return this.generators[key - 1];
   }
 
-  // to initialize the vertices with Edges
-  void createVertex(int i, int j) {
-    Vertex v = this.vertices.get(i).get(j);
-    if (j != 0 && (j % 2 == 0)) {
-      int randomNum = rand.nextInt(this.yNum);
-      this.workList.add(new Edge(v, this.vertices.get(i).get(j - 1), randomNum));
-    }
-    
-    if (j != MAZE_WIDTH - 1 && (j % 2 == 0)) {
-      int randomNum = rand.nextInt(this.yNum);
-      this.workList.add(new Edge(v, this.vertices.get(i).get(j + 1), randomNum));
+  // produces a Vertex view of the given cell with its current color; the
+  // view has no outEdges and is not kept by this maze
+  Vertex vertex(int cell) {
+    return new Vertex(this.grid.x(cell), this.grid.y(cell), this.colors[cell]);
+  }
+
+  // produces a Vertex view of every cell, rows first, with its current color
+  // and outEdges in both directions for every passage; the views are built
+  // from the grid on every call and are not kept by this maze
+  ArrayList<ArrayList<Vertex>> vertexRows() {
+    MazeGrid g = this.grid;
+    ArrayList<ArrayList<Vertex>> rows = new ArrayList<ArrayList<Vertex>>(g.height);
+    for (int y = 0; y < g.height; y++) {
+      ArrayList<Vertex> row = new ArrayList<Vertex>(g.width);
+      for (int x = 0; x < g.width; x++) {
+        row.add(new Vertex(x, y, this.colors[g.index(x, y)]));
+      }
+      rows.add(row);
     }
-    
-    if (i != 0 && (i % 2 == 0)) {
-      int randomNum = rand.nextInt(this.xNum);
-      this.workList.add(new Edge(v, this.vertices.get(i - 1).get(j), randomNum));
+
+    for (int cell = 0; cell < g.cells(); cell++) {
+      Vertex v = rows.get(g.y(cell)).get(g.x(cell));
+      if (g.hasEast(cell)) {
+        Vertex east = rows.get(g.y(cell)).get(g.x(cell) + 1);
+        v.connect(new Edge(v, east));
+        east.connect(new Edge(east, v));
+      }
+      if (g.hasSouth(cell)) {
+        Vertex south = rows.get(g.y(cell) + 1).get(g.x(cell));
+        v.connect(new Edge(v, south));
+        south.connect(new Edge(south, v));
+      }
     }
-    
-    if (i != MAZE_HEIGHT - 1 && (i % 2 == 0)) {
-      int randomNum = rand.nextInt(this.xNum);
-      this.workList.add(new Edge(v, this.vertices.get(i + 1).get(j), randomNum));
+    return rows;
+  }
+
+  // produces the views of vertices in one list, rows first
+  ArrayList<Vertex> vertexList() {
+    ArrayList<Vertex> all = new ArrayList<Vertex>(this.grid.cells());
+    for (ArrayList<Vertex> row : this.vertices) {
+      all.addAll(row);
     }
+    return all;
   }
 
-  // sorts this workList
-  void initWorkList() {
-    Collections.sort(this.workList, new Comparator<Edge>() {
-      public int compare(Edge e1, Edge e2) {
-        return e1.weight - e2.weight;
-      }
-    });
+  // produces an Edge view of the given edge id between the given Vertex
+  // views, with the given weight
+  Edge edgeView(int edge, ArrayList<ArrayList<Vertex>> rows, int weight) {
+    int from = this.grid.edgeFrom(edge);
+    int to = this.grid.edgeTo(edge);
+    return new Edge(rows.get(this.grid.y(from)).get(this.grid.x(from)),
+        rows.get(this.grid.y(to)).get(this.grid.x(to)), weight);
   }
-  
 
-  // initializes the HashMap
-  void initRep() {
-    for (Vertex v : this.vert) {
-      this.rep.put(v, v);
+  // produces an Edge view of every passage between the views of vertices,
+  // with its weight, in edge id order
+  ArrayList<Edge> passageEdges() {
+    ArrayList<Edge> list = new ArrayList<Edge>(this.grid.passageCount());
+    for (int id = 0; id < this.grid.edgeIds(); id++) {
+      if (this.grid.isOpen(id)) {
+        list.add(this.edgeView(id, this.vertices,
+            EdgeWeights.weight(this.seed, id, this.yNum, this.xNum)));
+      }
     }
+    return list;
   }
 
-  // to initialize the graph
-  void build() {
-    ArrayList<Edge> workListCopy = new ArrayList<Edge>(this.workList);
-    
-    while (this.edges.size() < this.vert.size() - 1) {
-      Edge e = workListCopy.get(0);
-      Vertex x = e.from;
-      Vertex y = e.to;
-      workListCopy.remove(0);
-      if (!(this.find(x).equals(this.find(y)))) {
-        this.edges.add(e);
-        this.union(x, y);
-        Vertex vertexFrom = this.vertices.get(x.y).get(x.x);
-        Vertex vertexTo = this.vertices.get(y.y).get(y.x);
-        vertexFrom.outEdges.add(new Edge(vertexFrom, vertexTo, e.weight));
-        vertexTo.outEdges.add(new Edge(vertexTo, vertexFrom, e.weight));
+  // produces an Edge view of every candidate edge between the views of
+  // vertices, with its weight, in the order build reads them: by weight,
+  // then by edge id
+  ArrayList<Edge> candidateEdges() {
+    int[] ids = new int[2 * this.grid.cells() - this.grid.width - this.grid.height];
+    int[] weights = new int[this.grid.edgeIds()];
+    EdgeWeights.fill(this.grid, this.seed, this.yNum, this.xNum, weights);
+    int n = 0;
+    for (int id = 0; id < this.grid.edgeIds(); id++) {
+      if (this.grid.isCandidate(id)) {
+        ids[n++] = id;
       }
     }
+    new EdgeSorter().sort(ids, n, weights);
+    ArrayList<Edge> list = new ArrayList<Edge>(n);
+    for (int id : ids) {
+      list.add(this.edgeView(id, this.vertices, weights[id]));
+    }
+    return list;
+  }
+
+  // to initialize the vertices: the Vertex views are built again from the
+  // grid the next time vertices or vert is read
+  void initVertex() {
+    this.vertices.refresh();
+    this.vert.refresh();
+  }
+
+  // to initialize the vertices with Edges: the outEdges of the Vertex views
+  // and the Edge views of the passages and candidate edges are built again
+  // from the grid the next time they are read
+  void initEdges() {
+    this.initVertex();
+    this.edges.refresh();
+    this.workList.refresh();
+    this.initMaze();
+  }
+
+  // sorts this workList: build reads the candidate edges by weight, so the
+  // Edge views are listed in that order the next time workList is read
+  void initWorkList() {
+    this.workList.refresh();
+  }
+
+  // to construct the List of Edges in the Maze: the Edge views of the walls
+  // are built again from the grid the next time maze is read
+  void initMaze() {
+    this.maze.refresh();
+  }
+
+  // initializes the HashMap: rep becomes the view over the regions of the
+  // maze again
+  void initRep() {
+    this.rep = new RepView(this);
   }
 
   // assigns the representative of a to the representative of b
@@ -356,193 +570,439 @@ class Maze extends World {
       return this.find(this.rep.get(a));
     }
   }
+
+  // the regions of the maze: the ones build joined, or for a maze from a
+  // generator or a file, ones joined from its passages on first use
+  DisjointSet regions() {
+    if (this.sets == null || this.sets.parent.length != this.grid.cells()) {
+      this.sets = new DisjointSet(this.grid.cells());
+      for (int id = 0; id < this.grid.edgeIds(); id++) {
+        if (this.grid.isOpen(id)) {
+          this.sets.union(this.grid.edgeFrom(id), this.grid.edgeTo(id));
+        }
+      }
+    }
+    return this.sets;
+  }
+  
+  // to generate the next maze from the next seed: when the dimensions did not
+  // change, the grid, colors, Kruskal or generator buffers, solver and
+  // renderer of the current maze are reset and refilled in place; what is
+  // still allocated is the random generator of the seed and the scene
+  void regenerate() {
+    this.seed = EdgeWeights.next(this.seed);
+    this.yNum = 100;
+    this.xNum = 100;
+    this.playback.stop();
+    this.score = null;
+    this.index = null;
+    this.stats = null;
+    if (this.batch != null) {
+      this.batch.forest = null;
+      this.batch.index = null;
+    }
+    if (this.solver != null) {
+      this.solver.reset();
+      this.solver.metrics.clear();
+    }
+    
+    if (this.canReuse()) {
+      this.initColors();
+    }
+    else {
+      this.initGrid();
+    }
+    this.build();
+    this.initEdges();
+    if (this.reachability != null && this.reachability.sets != this.sets) {
+      this.reachability = null;
+    }
+    if (this.renderer != null && this.renderer.grid == this.grid) {
+      this.renderer.paintAll(this.colors);
+    }
+    this.makeScene();
+  }
+  
+  // determines if the next maze has the dimensions of this one, so its
+  // buffers can be refilled in place
+  boolean canReuse() {
+    return this.grid != null && this.grid.width == this.width
+        && this.grid.height == this.height;
+  }
+  
+  // the solver for the grid of this maze, reused between searches
+  GridSolver solver() {
+    if (this.solver == null || this.solver.maze != this.grid) {
+      this.solver = new GridSolver(this.grid);
+      this.solver.listener = this.metrics;
+    }
+    return this.solver;
+  }
+  
+  // determines if there is a path between the two given vertices of this maze
+  boolean connected(Vertex a, Vertex b) {
+    if (this.reachability == null || this.reachability.maze != this.grid) {
+      this.reachability = new Reachability(this.grid,
+          this.sets != null && this.sets.parent.length == this.grid.cells() ? this.sets : null);
+    }
+    return this.reachability.connected(this.grid.index(a.x, a.y), this.grid.index(b.x, b.y));
+  }
+  
+  // the tree index of the grid of this maze, built on first use
+  TreeIndex treeIndex() {
+    if (this.index == null || this.index.maze != this.grid) {
+      this.index = new TreeIndex(this.grid);
+    }
+    return this.index;
+  }
   
   // to creates a solution path to maze using breath first search 
   void searchBFS(Vertex start, Vertex target) {
-    this.deque.addLast(start);
-    this.cameFromEdge.put(start, null);
-    
-    while (!this.deque.isEmpty()) {
-      Vertex next = this.deque.removeFirst();
-      this.visited.add(next);
-      
-      if (next.equals(target)) {
-        initPath();
-        break;
-      } 
-      
-      for (Edge e: next.outEdges) {
-        if (!this.cameFromEdge.containsKey(e.to)) {
-          this.deque.addLast(e.to);
-          this.cameFromEdge.put(e.to, e);
-        } else {
-          this.wrongmoves++;
-        }
-      }
-    }  
+    GridSolver s = this.solver();
+    s.bfs(this.grid.index(start.x, start.y), this.grid.index(target.x, target.y));
+    this.searched(s);
   }
   
   
   // to creates a solution path to maze using depth first search 
   void searchDFS(Vertex start, Vertex target) {
-    this.deque.addFirst(start);
-    this.cameFromEdge.put(start, null);
-    
-    while (!this.deque.isEmpty()) {
-      Vertex next = this.deque.removeFirst();
-      
-      if (next.equals(target)) {
-        initPath();
-        break;
-      } 
-      
-      for (Edge e: next.outEdges) {
-        if (!this.cameFromEdge.containsKey(e.to)) {
-          this.deque.addFirst(e.to);
-          this.visited.add(next);
-          this.cameFromEdge.put(e.to, e);
-        } else {
-          this.wrongmoves++;
-        }
-      }
+    GridSolver s = this.solver();
+    s.dfs(this.grid.index(start.x, start.y), this.grid.index(target.x, target.y));
+    this.searched(s);
+  }
+  
+  // to creates a solution path to maze using A* with a Manhattan heuristic
+  void searchAStar(Vertex start, Vertex target) {
+    GridSolver s = this.solver();
+    s.astar(this.grid.index(start.x, start.y), this.grid.index(target.x, target.y));
+    this.searched(s);
+  }
+  
+  // to creates a solution path to maze using breath first search from both ends
+  void searchBidirectional(Vertex start, Vertex target) {
+    GridSolver s = this.solver();
+    s.bidirectional(this.grid.index(start.x, start.y), this.grid.index(target.x, target.y));
+    this.searched(s);
+  }
+  
+  // to creates a cheapest path under the costs of this maze, with 0-1 BFS
+  // when every step costs 0 or 1 and with Dijkstra otherwise
+  void searchWeighted(Vertex start, Vertex target) {
+    if (this.costs == null || this.costs.cell.length != this.grid.cells()) {
+      this.costs = new MazeCosts(this.grid.cells());
     }
+    GridSolver s = this.solver();
+    s.cheapest(this.grid.index(start.x, start.y), this.grid.index(target.x, target.y),
+        this.costs);
+    this.searched(s);
   }
   
-  // to construct the list of vertex on the path
-  void initPath() {
-    Vertex current = this.vert.get(MAZE_WIDTH * MAZE_HEIGHT - 1);
-    this.path.addFirst(current);
-    Edge next = this.cameFromEdge.get(current);
-    
-    while (next != null) {
-      current = next.from;
-      next = this.cameFromEdge.get(current);
-      path.addFirst(current);
+  // the batch solver for the grid of this maze, reused between queries
+  BatchSolver batch() {
+    if (this.batch == null || this.batch.maze != this.grid) {
+      this.batch = new BatchSolver(this.grid);
     }
+    return this.batch;
   }
   
-  // to construct the List of Edges in the Maze
-  void initMaze() {
-    for (Edge e : this.workList) {
-      if (!(this.edges.contains(e))) {
-        this.maze.add(new Edge(e.from, e.to));
-      }
+  // the difficulty statistics of this maze
+  MazeStats stats() {
+    if (this.stats == null || this.statsGrid != this.grid) {
+      this.stats = MazeAnalytics.analyze(this.grid, this.seed);
+      this.statsGrid = this.grid;
+    }
+    return this.stats;
+  }
+  
+  // to color every cell by its distance from the start cell, from white
+  // near the start to the path color far away
+  void heatMap() {
+    int[] d = this.batch().distances(this.grid.index(this.start.x, this.start.y));
+    int max = 1;
+    for (int v : d) {
+      max = Math.max(max, v);
+    }
+    Color[] steps = new Color[HEAT_STEPS];
+    for (int i = 0; i < HEAT_STEPS; i++) {
+      int f = 255 * i / (HEAT_STEPS - 1);
+      steps[i] = new Color(255 - (255 - PATH_COLOR.getRed()) * f / 255,
+          255 - (255 - PATH_COLOR.getGreen()) * f / 255,
+          255 - (255 - PATH_COLOR.getBlue()) * f / 255);
+    }
+    for (int cell = 0; cell < d.length; cell++) {
+      this.paint(cell,
+          d[cell] < 0 ? Color.DARK_GRAY : steps[(int) ((long) d[cell] * (HEAT_STEPS - 1) / max)]);
+    }
+    this.playback.stop();
+  }
+  
+  // to open extra passages from the given percent of the dead ends, adding
+  // loops to the maze; produces the number of passages opened
+  int braid(int percent) {
+    int opened = this.grid.braid(EdgeWeights.next(~this.seed), percent);
+    this.index = null;
+    this.batch = null;
+    this.stats = null;
+    this.renderer = null;
+    this.initEdges();
+    return opened;
+  }
+  
+  // to start replaying the given finished search
+  void searched(GridSolver s) {
+    this.playback.load(s);
+  }
+  
+  // the id of the given Edge in the grid of this maze
+  int edgeId(Edge e) {
+    return this.grid.edgeId(this.grid.index(e.from.x, e.from.y),
+        this.grid.index(e.to.x, e.to.y));
+  }
+
+  // determines if the given Edge is a passage of this maze, in constant time
+  boolean isPassage(Edge e) {
+    int id = this.edgeId(e);
+    return id >= 0 && this.grid.isOpen(id);
+  }
+
+  // produces Edge views of the walls of this maze, derived from the grid on
+  // every call and not kept by this maze
+  ArrayList<Edge> walls() {
+    return this.walls(this.vertexRows());
+  }
+
+  // produces Edge views of the walls of this maze between the given Vertex
+  // views
+  ArrayList<Edge> walls(ArrayList<ArrayList<Vertex>> rows) {
+    ArrayList<Edge> walls = new ArrayList<Edge>(this.grid.wallCount());
+    PrimitiveIterator.OfInt it = this.grid.walls();
+    while (it.hasNext()) {
+      walls.add(this.edgeView(it.nextInt(), rows, 0));
     }
+    return walls;
   }
+  
 
 
-  // produces the image of the world
+  // produces the image of the world, painting the whole maze once per
+  // generated maze and reusing the painted layer on every later frame
   public WorldScene makeScene() {
-    WorldScene s = new WorldScene(1000, 700);
-    WorldImage boarderY = new RectangleImage(3, MAZE_HEIGHT * SCALE_HEIGHT, 
-        "solid", new Color(0, 0, 0));
-    WorldImage boarderX = new RectangleImage(MAZE_WIDTH * SCALE_WIDTH, 3, 
-        "solid", new Color(0, 0, 0));
-    WorldImage score = new TextImage("Wrong Moves In Search: "  
-        + this.wrongmoves.toString(), 24,FontStyle.BOLD,Color.BLACK);
-    
-    // walls of maze
-    for (Edge e : this.workList) {
-      if (!(this.edges.contains(e))) {
-        if (e.to.x == e.from.x) {
-          s.placeImageXY(e.drawHorizontalEdge(),
-              (int)(((e.to.x + e.from.x) / 2.0) * SCALE_WIDTH) + SCALE_WIDTH / 2,
-              (int)(((e.to.y + e.from.y) / 2.0) * SCALE_HEIGHT) + SCALE_HEIGHT / 2);
-        } else if (e.to.y == e.from.y) {
-          s.placeImageXY(e.drawVerticalEdge(),
-              (int)(((e.to.x + e.from.x) / 2.0) * SCALE_WIDTH) + SCALE_WIDTH / 2,
-              (int)(((e.to.y + e.from.y) / 2.0) * SCALE_HEIGHT) + SCALE_HEIGHT / 2);
-        }
-      } else {
-        if (e.to.x == e.from.x) {
-          s.placeImageXY(e.drawHorizontalBranch(),
-              (int)(((e.to.x + e.from.x) / 2.0) * SCALE_WIDTH) + SCALE_WIDTH / 2,
-              (int)(((e.to.y + e.from.y) / 2.0) * SCALE_HEIGHT) + SCALE_HEIGHT / 2);
-        } else if (e.to.y == e.from.y) {
-          s.placeImageXY(e.drawVerticalBranch(),
-              (int)(((e.to.x + e.from.x) / 2.0) * SCALE_WIDTH) + SCALE_WIDTH / 2,
-              (int)(((e.to.y + e.from.y) / 2.0) * SCALE_HEIGHT) + SCALE_HEIGHT / 2);
-        }
-      }
+    if (this.renderer == null || this.renderer.grid != this.grid) {
+      this.renderer = new MazeRenderer(this.grid, this.scaleWidth, this.scaleHeight);
+      this.renderer.paintAll(this.colors);
     }
-    
-    // cells of maze
-    for (Vertex v : this.vert) {
-      s.placeImageXY(v.drawVertex(), (v.x * SCALE_WIDTH) + (SCALE_WIDTH / 2), 
-          (v.y * SCALE_HEIGHT) + (SCALE_HEIGHT / 2));
+    if (this.score == null || this.scoreShown != this.metrics.searches) {
+      this.scoreShown = this.metrics.searches;
+      SearchMetrics last = this.solver == null || this.solver.maze != this.grid
+          ? new SearchMetrics() : this.solver.metrics;
+      this.score = new TextImage("Wrong Moves In Search: "  
+          + last.wrongMoves + "   Expanded: " + last.expanded
+          + "   Peak Frontier: " + last.peakFrontier + "   Seed: " + this.seed,
+          24,FontStyle.BOLD,Color.BLACK);
     }
     
-    // boarders of maze
-    s.placeImageXY(boarderY, 1, (MAZE_HEIGHT * SCALE_HEIGHT) / 2);
-    s.placeImageXY(boarderY, (MAZE_WIDTH * SCALE_WIDTH) - 1, (MAZE_HEIGHT * SCALE_HEIGHT) / 2);
-    s.placeImageXY(boarderX, (MAZE_WIDTH * SCALE_WIDTH) / 2, 1);
-    s.placeImageXY(boarderX, (MAZE_WIDTH * SCALE_WIDTH) / 2, (MAZE_HEIGHT * SCALE_HEIGHT) - 1);
+    WorldScene s = new WorldScene(1000, 700);
+    s.placeImageXY(this.renderer.layer, this.renderer.pixelWidth() / 2,
+        this.renderer.pixelHeight() / 2);
     
     // Score
-    s.placeImageXY(score, 500, 675);
+    s.placeImageXY(this.score, 500, 675);
     
     return s;
   }
   
+  // sets the color of the given Vertex and of its cell, and repaints only
+  // that cell
+  void recolor(Vertex v, Color color) {
+    v.color = color;
+    this.paint(this.grid.index(v.x, v.y), color);
+  }
+  
   // key event for the the game: if r is prested the game will reset
   public void onKeyEvent(String key) {
+    // pick the generation algorithm, then reset
+    if (key.equals("1") || key.equals("2") || key.equals("3") || key.equals("4")
+        || key.equals("5")) {
+      this.generator = this.generator(Integer.parseInt(key));
+      key = "r";
+    }
+    
     if (key.equals("r")) {
-      this.rand = new Random();
-      this.yNum = 100;
-      this.xNum = 100;
-      this.vertices = new ArrayList<ArrayList<Vertex>>(MAZE_WIDTH);
-      this.vert = new ArrayList<Vertex>(MAZE_WIDTH * MAZE_HEIGHT);
-      this.rep = new HashMap<Vertex, Vertex>();
-      this.edges = new ArrayList<Edge>();
-      this.workList = new ArrayList<Edge>();
-      this.maze = new ArrayList<Edge>();
-      this.cameFromEdge = new HashMap<Vertex, Edge>();
-      this.path = new LinkedList<Vertex>();
-      this.deque = new ArrayDeque<Vertex>();
-      this.wrongmoves = 0;
-      this.initVertex();
-      this.initEdges();
-      this.initWorkList();
-      this.initRep();
-      this.build();
-      this.initMaze();
-      this.makeScene();
+      this.regenerate();
     }
     
     // bfs search
     if (key.equals("b")) { 
-      this.searchBFS(this.vertices.get(0).get(0),
-          this.vertices.get(MAZE_HEIGHT - 1).get(MAZE_WIDTH - 1));
-      this.active = true;
+      this.searchBFS(this.start, this.target);
     }
     
     // dfs search
     if (key.equals("d")) {
-      this.searchDFS(this.vertices.get(0).get(0),
-          this.vertices.get(MAZE_HEIGHT - 1).get(MAZE_WIDTH - 1));
-      this.active = true;
+      this.searchDFS(this.start, this.target);
+    }
+    
+    // A* search
+    if (key.equals("a")) {
+      this.searchAStar(this.start, this.target);
+    }
+    
+    // two-way (bidirectional) bfs search
+    if (key.equals("t")) {
+      this.searchBidirectional(this.start, this.target);
+    }
+    
+    // cheapest path search under the costs of the maze
+    if (key.equals("w")) {
+      this.searchWeighted(this.start, this.target);
+    }
+    
+    // open loops at a tenth of the dead ends
+    if (key.equals("l")) {
+      this.braid(10);
+      this.makeScene();
+    }
+    
+    // color the cells by their distance from the start
+    if (key.equals("h")) {
+      this.heatMap();
+    }
+    
+    // replay faster or slower
+    if (key.equals("f")) {
+      this.playback.faster();
+    }
+    if (key.equals("s")) {
+      this.playback.slower();
+    }
+    
+    // replay as many cells per tick as fit in a frame, or back to a fixed step
+    if (key.equals("v")) {
+      this.playback.budgetNanos = this.playback.budgetNanos > 0 ? 0 : FRAME_BUDGET_NANOS;
+    }
+    
+    // show the rest of the replay at once
+    if (key.equals("k")) {
+      this.playback.skipToSolution(this);
+    }
+    
+    // print the search histograms and the maze statistics as JSON lines
+    if (key.equals("m")) {
+      try {
+        this.metrics.writeJsonLines(System.out);
+        System.out.println(this.stats().toJson());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
     }
   }
   
-  // on every tick, updates the current state of the graph to show progress in solving
+  // on every tick, reveals the next cells of the replayed search
   public void onTick() {
-    if (this.active) {
-      if (!this.visited.isEmpty()) {
-        this.visited.removeFirst().color = Color.LIGHT_GRAY;
-      } else {
-        this.active = false;
-        this.solved = true;
+    this.playback.tick(this);
+  }
+  
+  // to paint the given cell with the given color, and its Vertex view if
+  // vertices has been built
+  public void paint(int cell, Color color) {
+    this.colors[cell] = color;
+    if (this.vertices.built) {
+      this.vertices.get(this.grid.y(cell)).get(this.grid.x(cell)).color = color;
+    }
+    if (this.renderer != null) {
+      this.renderer.update(cell, color);
+    }
+  }
+}
+
+// to represent the representatives of the vertices of a Maze as a Map: every
+// Vertex view in bounds maps to the view of its parent in the regions of the
+// maze, and put links the two given regions, so the map holds no Vertex
+class RepView extends AbstractMap<Vertex, Vertex> {
+  Maze maze;
+
+  RepView(Maze maze) {
+    this.maze = maze;
+  }
+
+  // produces the cell of the given key, or -1 if it is not a Vertex of the maze
+  int cell(Object key) {
+    if (key instanceof Vertex) {
+      Vertex v = (Vertex) key;
+      MazeGrid g = this.maze.grid;
+      if (v.x >= 0 && v.x < g.width && v.y >= 0 && v.y < g.height) {
+        return g.index(v.x, v.y);
       }
     }
-    
-    if (this.solved) {
-      if (!this.path.isEmpty()) {
-        this.path.removeFirst().color = new Color(177, 156, 217);
-      } else {
-        this.active = false;
-        this.solved = false;
+    return -1;
+  }
+
+  // determines if the given key is a Vertex of the maze
+  public boolean containsKey(Object key) {
+    return this.cell(key) >= 0;
+  }
+
+  // produces a view of the parent of the given Vertex, or null if it is not
+  // a Vertex of the maze
+  public Vertex get(Object key) {
+    int cell = this.cell(key);
+    if (cell < 0) {
+      return null;
+    }
+    return this.maze.vertex(this.maze.regions().parent[cell]);
+  }
+
+  // makes the given value the parent of the given key, joining their
+  // regions, and produces the previous parent
+  public Vertex put(Vertex key, Vertex value) {
+    int a = this.cell(key);
+    int b = this.cell(value);
+    if (a < 0 || b < 0) {
+      throw new IllegalArgumentException("Vertex outside the maze");
+    }
+    DisjointSet ds = this.maze.regions();
+    Vertex old = this.maze.vertex(ds.parent[a]);
+    int ra = ds.find(a);
+    int rb = ds.find(b);
+    if (ra != rb) {
+      ds.parent[ra] = rb;
+      if (ds.rank[rb] <= ds.rank[ra]) {
+        ds.rank[rb] = (byte) (ds.rank[ra] + 1);
       }
+      ds.sets--;
     }
+    return old;
+  }
+
+  // the number of vertices of the maze
+  public int size() {
+    return this.maze.grid.cells();
+  }
+
+  // every Vertex of the maze with a view of its parent, built as it is read
+  public Set<Map.Entry<Vertex, Vertex>> entrySet() {
+    return new AbstractSet<Map.Entry<Vertex, Vertex>>() {
+      public int size() {
+        return RepView.this.size();
+      }
+
+      public Iterator<Map.Entry<Vertex, Vertex>> iterator() {
+        return new Iterator<Map.Entry<Vertex, Vertex>>() {
+          int cell = 0;
+
+          public boolean hasNext() {
+            return this.cell < RepView.this.size();
+          }
+
+          public Map.Entry<Vertex, Vertex> next() {
+            if (!this.hasNext()) {
+              throw new NoSuchElementException();
+            }
+            Vertex key = RepView.this.maze.vertex(this.cell++);
+            return new AbstractMap.SimpleEntry<Vertex, Vertex>(key, RepView.this.get(key));
+          }
+        };
+      }
+    };
   }
 }
 
@@ -597,7 +1057,7 @@ class ExamplesMaze {
     hash.put(this.v4, this.v4);
     this.world2.rep = hash;
   }
-     
+
   //test method hasPathTo
   void testHasPathTo(Tester t) {
     this.init();
@@ -609,6 +1069,50 @@ class ExamplesMaze {
         .hasPathBetween(world4.vertices.get(5).get(9)), true);
   }
   
+  //test hasPathTo and hasPathBetween on graphs with cycles
+  void testHasPathCycles(Tester t) {
+    Vertex a = new Vertex(0, 0);
+    Vertex b = new Vertex(1, 0);
+    Vertex c = new Vertex(2, 0);
+    a.connect(new Edge(a, b));
+    b.connect(new Edge(b, a));
+    t.checkExpect(a.hasPathTo(c), false);
+    t.checkExpect(a.hasPathBetween(c), false);
+    Vertex off = new Vertex(-1, 0);
+    a.connect(new Edge(a, off));
+    off.connect(new Edge(off, c));
+    t.checkExpect(a.hasPathTo(off), false);
+    t.checkExpect(a.hasPathBetween(c), false);
+    t.checkExpect(off.hasPathBetween(off), false);
+    Vertex far = new Vertex(5000, 7000);
+    b.connect(new Edge(b, far));
+    t.checkExpect(a.hasPathTo(far), true);
+    t.checkExpect(a.hasPathTo(a), true);
+    t.checkExpect(c.hasPathTo(c), false);
+    t.checkExpect(c.hasPathBetween(c), true);
+    t.checkExpect(world4.vertices.get(0).get(0)
+        .hasPathTo(world4.vertices.get(5).get(9)), true);
+  }
+
+  //test Reachability with and without the disjoint sets of the maze
+  void testReachability(Tester t) {
+    MazeGrid g = new MazeGrid(3, 2);
+    g.open(g.edgeId(0, 1));
+    g.open(g.edgeId(1, 4));
+    g.open(g.edgeId(3, 4));
+    DisjointSet ds = new DisjointSet(6);
+    ds.union(0, 1);
+    ds.union(1, 4);
+    ds.union(3, 4);
+    Reachability searched = new Reachability(g, null);
+    Reachability unioned = new Reachability(g, ds);
+    t.checkExpect(searched.connected(0, 3), true);
+    t.checkExpect(searched.connected(0, 5), false);
+    t.checkExpect(unioned.connected(0, 3), true);
+    t.checkExpect(unioned.connected(2, 5), false);
+    t.checkExpect(this.world1.connected(this.world1.start, this.world1.target), true);
+  }
+
   //test method hasPathBetween
   void testHasPathBetween(Tester t) {
     this.init();
@@ -689,6 +1193,27 @@ class ExamplesMaze {
     }
   }
 
+  //test build accepts the candidate edges in weight order
+  void testBuildOrder(Tester t) {
+    int[] edges = this.world1.builder.edges;
+    int[] weights = this.world1.builder.weights;
+    boolean sorted = true;
+    for (int i = 1; i < edges.length; i++) {
+      sorted = sorted && weights[edges[i - 1]] <= weights[edges[i]];
+    }
+    t.checkExpect(sorted, true);
+    MazeGrid g = this.world1.grid;
+    t.checkExpect(edges.length, 2 * g.cells() - g.width - g.height);
+    Maze m = new Maze(10, 6, 31);
+    m.yNum = 3;
+    m.build();
+    int[] expected = new int[m.grid.edgeIds()];
+    EdgeWeights.fill(m.grid, 31, 3, 100, expected);
+    t.checkExpect(m.builder.weights, expected);
+    t.checkExpect(EdgeWeights.weight(31, 2, 3, 100), EdgeWeights.weight(31, 2, 3));
+    t.checkExpect(EdgeWeights.weight(31, 3, 3, 100), EdgeWeights.weight(31, 3, 100));
+  }
+
   //test method build
   void testBuild(Tester t) {
     t.checkExpect(this.world1.edges.size(), this.world1.vert.size() - 1);
@@ -712,6 +1237,31 @@ class ExamplesMaze {
     t.checkExpect(this.world2.find(this.v4), this.v4);
   }
 
+  //test union and find through the view of the regions of a built maze
+  void testRepView(Tester t) {
+    Maze m = new Maze(10, 6, 31);
+    t.checkExpect(m.rep.size(), 60);
+    t.checkExpect(m.rep.containsKey(new Vertex(9, 5)), true);
+    t.checkExpect(m.rep.containsKey(new Vertex(10, 5)), false);
+    t.checkExpect(m.rep.containsKey(new Vertex(-1, 0)), false);
+    t.checkExpect(m.rep.get(new Vertex(10, 5)), null);
+    t.checkExpect(m.find(new Vertex(0, 0)), m.find(new Vertex(9, 5)));
+    t.checkExpect(m.rep.entrySet().size(), 60);
+
+    MazeGrid g = new MazeGrid(3, 1);
+    g.open(g.edgeId(0, 1));
+    Maze split = new Maze(g);
+    Vertex a = new Vertex(0, 0);
+    Vertex c = new Vertex(2, 0);
+    t.checkExpect(split.find(a).equals(split.find(c)), false);
+    t.checkExpect(split.regions().sets, 2);
+    split.union(a, c);
+    t.checkExpect(split.find(a), split.find(c));
+    t.checkExpect(split.regions().sets, 1);
+    split.initRep();
+    t.checkExpect(split.rep.get(c), split.find(c));
+  }
+
   //test method initMaze
   void testInitMaze(Tester t) {
     ArrayList<Edge> maze = this.world1.maze;
@@ -723,4 +1273,1474 @@ class ExamplesMaze {
       }
     }
   }
+
+  //test the lists of edges, sorted and in the tree, match the grid
+  void testInitEdges(Tester t) {
+    Maze m = new Maze(10, 6, 31);
+    t.checkExpect(m.edges.size(), m.grid.passageCount());
+    t.checkExpect(m.workList.size(), 2 * 60 - 10 - 6);
+    t.checkExpect(m.vert.size(), 60);
+    for (Edge e : m.edges) {
+      t.checkExpect(m.isPassage(e), true);
+    }
+    int[] weights = new int[m.grid.edgeIds()];
+    EdgeWeights.fill(m.grid, 31, m.yNum, m.xNum, weights);
+    for (Edge e : m.workList) {
+      t.checkExpect(e.weight, weights[m.edgeId(e)]);
+    }
+    t.checkExpect(m.edgeId(m.workList.get(0)), m.builder.edges[0]);
+    t.checkExpect(m.vertices.get(0).get(0).outEdges.size() > 0, true);
+  }
+
+  //test the passages recorded in the grid of a built maze
+  void testBuildGrid(Tester t) {
+    MazeGrid g = this.world1.grid;
+    t.checkExpect(g.passageCount(), g.cells() - 1);
+    t.checkExpect(this.world1.sets.sets, 1);
+    t.checkExpect(this.isPerfect(g), true);
+    int out = 0;
+    for (ArrayList<Vertex> row : this.world1.vertices) {
+      for (Vertex v : row) {
+        for (Edge e : v.outEdges) {
+          t.checkExpect(g.hasPassage(g.index(e.from.x, e.from.y), g.index(e.to.x, e.to.y)),
+              true);
+          out++;
+        }
+      }
+    }
+    t.checkExpect(out, 2 * g.passageCount());
+  }
+
+  //test the index and edge id arithmetic of MazeGrid
+  void testGridIds(Tester t) {
+    MazeGrid g = new MazeGrid(4, 3);
+    t.checkExpect(g.cells(), 12);
+    t.checkExpect(g.index(2, 1), 6);
+    t.checkExpect(g.x(6), 2);
+    t.checkExpect(g.y(6), 1);
+    t.checkExpect(g.edgeId(6, 7), 12);
+    t.checkExpect(g.edgeId(7, 6), 12);
+    t.checkExpect(g.edgeId(6, 10), 13);
+    t.checkExpect(g.edgeId(3, 4), -1);
+    t.checkExpect(g.edgeId(0, 5), -1);
+    t.checkExpect(g.isCandidate(12), true);
+    t.checkExpect(g.isCandidate(2 * 3), false);
+    t.checkExpect(g.isCandidate(2 * 9 + 1), false);
+    t.checkExpect(g.edgeFrom(13), 6);
+    t.checkExpect(g.edgeTo(13), 10);
+    t.checkExpect(MazeGrid.edgeId(4, 3, 10, 6), 13);
+    t.checkExpect(MazeGrid.edgeId(4, 3, 9, 13), -1);
+    t.checkExpect(MazeGrid.edgeId(1, 3, 1, 2), 3);
+    t.checkExpect(new GridSolver(g).edgeBetween(7, 6), 12);
+  }
+
+  //test opening passages and reading neighbors in MazeGrid
+  void testGridPassages(Tester t) {
+    MazeGrid g = new MazeGrid(3, 3);
+    int[] out = new int[4];
+    g.open(g.edgeId(4, 5));
+    g.open(g.edgeId(1, 4));
+    t.checkExpect(g.hasEast(4), true);
+    t.checkExpect(g.hasWest(5), true);
+    t.checkExpect(g.hasNorth(4), true);
+    t.checkExpect(g.hasSouth(1), true);
+    t.checkExpect(g.hasPassage(4, 7), false);
+    t.checkExpect(g.neighbors(4, out), 2);
+    t.checkExpect(out[0], 5);
+    t.checkExpect(out[1], 1);
+    t.checkExpect(g.degree(4), 2);
+    t.checkExpect(g.passageCount(), 2);
+    g.close(g.edgeId(4, 5));
+    t.checkExpect(g.degree(4), 1);
+    g.clear();
+    t.checkExpect(g.passageCount(), 0);
+  }
+
+  //test the Vertex and Edge views of the grid of a maze
+  void testGridViews(Tester t) {
+    MazeGrid g = new MazeGrid(2, 2);
+    g.open(g.edgeId(0, 1));
+    g.open(g.edgeId(1, 3));
+    Maze m = new Maze(g);
+    ArrayList<ArrayList<Vertex>> rows = m.vertexRows();
+    t.checkExpect(rows.size(), 2);
+    t.checkExpect(rows.get(0).get(1).outEdges.size(), 2);
+    t.checkExpect(rows.get(1).get(0).outEdges.size(), 0);
+    t.checkExpect(rows.get(0).get(0).hasPathBetween(rows.get(1).get(1)), true);
+    t.checkExpect(m.edgeView(g.edgeId(1, 3), rows, 4),
+        new Edge(new Vertex(1, 0), new Vertex(1, 1), 4));
+  }
+
+  // to test the DisjointSet forest
+  void testDisjointSet(Tester t) {
+    DisjointSet ds = new DisjointSet(6);
+    t.checkExpect(ds.sets, 6);
+    t.checkExpect(ds.union(0, 1), true);
+    t.checkExpect(ds.union(2, 3), true);
+    t.checkExpect(ds.union(1, 3), true);
+    t.checkExpect(ds.union(0, 2), false);
+    t.checkExpect(ds.connected(0, 3), true);
+    t.checkExpect(ds.connected(0, 4), false);
+    t.checkExpect(ds.sets, 3);
+    ds.reset();
+    t.checkExpect(ds.connected(0, 1), false);
+    t.checkExpect(ds.sets, 6);
+  }
+
+  // to test KruskalBuilder produces a spanning tree
+  void testKruskalBuilder(Tester t) {
+    MazeGrid g = KruskalBuilder.generate(30, 20, 7, 100);
+    t.checkExpect(g.passageCount(), 30 * 20 - 1);
+    DisjointSet ds = new DisjointSet(g.cells());
+    for (int edge = 0; edge < g.edgeIds(); edge++) {
+      if (g.isOpen(edge)) {
+        t.checkExpect(g.isCandidate(edge), true);
+        t.checkExpect(ds.union(g.edgeFrom(edge), g.edgeTo(edge)), true);
+      }
+    }
+    t.checkExpect(ds.sets, 1);
+  }
+
+  // to test ParallelKruskal produces a perfect maze for uneven tiles
+  void testParallelKruskal(Tester t) {
+    Random r = new Random(12);
+    MazeGrid g = new MazeGrid(53, 37);
+    int[] weights = new int[g.edgeIds()];
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = r.nextInt(100);
+    }
+    ForkJoinPool pool = new ForkJoinPool(4);
+    ParallelKruskal parallel = new ParallelKruskal(g, weights, 8);
+    t.checkExpect(parallel.build(pool), g.cells() - 1);
+    t.checkExpect(parallel.sets.sets, 1);
+    pool.shutdown();
+    t.checkExpect(g.passageCount(), g.cells() - 1);
+    DisjointSet ds = new DisjointSet(g.cells());
+    boolean acyclic = true;
+    for (int edge = 0; edge < g.edgeIds(); edge++) {
+      if (g.isOpen(edge)) {
+        acyclic = acyclic && g.isCandidate(edge) && ds.union(g.edgeFrom(edge), g.edgeTo(edge));
+      }
+    }
+    t.checkExpect(acyclic, true);
+    t.checkExpect(ds.sets, 1);
+    t.checkExpect(ParallelKruskal.generate(300, 2, 1, 100,
+        ForkJoinPool.commonPool()).passageCount(), 599);
+    
+    DisjointSet linked = new DisjointSet(4);
+    t.checkExpect(linked.link(0, 1), true);
+    t.checkExpect(linked.link(1, 0), false);
+    t.checkExpect(linked.connected(0, 1), true);
+    t.checkExpect(linked.sets, 4);
+    
+    ParallelKruskalGenerator gen = new ParallelKruskalGenerator();
+    t.checkExpect(gen.generate(600, 500, 7).passages,
+        ParallelKruskal.generate(600, 500, 7, 100, ForkJoinPool.commonPool()).passages);
+    Maze big = new Maze(600, 500, 7);
+    t.checkExpect(big.generator, null);
+    t.checkExpect(big.generators[4] instanceof ParallelKruskalGenerator, true);
+    t.checkExpect(big.grid.passages, gen.generate(600, 500, 7).passages);
+    t.checkExpect(big.sets.sets, 1);
+    t.checkExpect(this.isPerfect(big.grid), true);
+    t.checkExpect(big.connected(big.start, big.target), true);
+    big.onKeyEvent("r");
+    t.checkExpect(big.grid.passages, gen.generate(600, 500, big.seed).passages);
+  }
+
+  // to test KruskalBuilder sorts by weight, then by edge id
+  void testKruskalSort(Tester t) {
+    KruskalBuilder b = new KruskalBuilder(new MazeGrid(2, 2));
+    t.checkExpect(b.edges, new int[] {0, 1, 3, 4});
+    b.sort(new int[] {5, 1, 9, 5, 0, 9, 9, 9});
+    t.checkExpect(b.edges, new int[] {4, 1, 0, 3});
+  }
+
+  // to test the counting sort of EdgeSorter
+  void testEdgeSorterCounting(Tester t) {
+    int[] ids = {0, 1, 2, 3, 4, 5};
+    int[] weights = {3, 0, 3, 1, 0, 2};
+    new EdgeSorter().sort(ids, 6, weights);
+    t.checkExpect(ids, new int[] {1, 4, 3, 5, 0, 2});
+  }
+
+  // to test the radix sort of EdgeSorter with a large weight range
+  void testEdgeSorterRadix(Tester t) {
+    Random r = new Random(3);
+    int[] ids = new int[500];
+    int[] weights = new int[500];
+    for (int i = 0; i < 500; i++) {
+      ids[i] = i;
+      weights[i] = r.nextInt(Integer.MAX_VALUE);
+    }
+    weights[10] = weights[20];
+    new EdgeSorter().sort(ids, 500, weights);
+    boolean ordered = true;
+    for (int i = 1; i < 500; i++) {
+      int a = weights[ids[i - 1]];
+      int b = weights[ids[i]];
+      ordered = ordered && (a < b || (a == b && ids[i - 1] < ids[i]));
+    }
+    t.checkExpect(ordered, true);
+  }
+
+  //test method isPassage
+  void testIsPassage(Tester t) {
+    for (Edge e : this.world1.vertices.get(0).get(0).outEdges) {
+      t.checkExpect(this.world1.isPassage(e), true);
+    }
+    for (Edge e : this.world1.walls()) {
+      t.checkExpect(this.world1.isPassage(e), false);
+    }
+    t.checkExpect(this.world1.isPassage(new Edge(new Vertex(0, 0), new Vertex(1, 1))), false);
+  }
+
+  //test the renderer only repaints cells whose color changed
+  void testRendererUpdate(Tester t) {
+    Maze m = new Maze(10, 6);
+    MazeRenderer r = m.renderer;
+    t.checkExpect(r.pixelWidth(), 10 * m.scaleWidth);
+    t.checkExpect(m.scaleWidth, 100);
+    t.checkExpect(m.scaleHeight, 100);
+    t.checkExpect(r.painted[0], new Color(128, 206, 225));
+    t.checkExpect(r.painted[59], Maze.PATH_COLOR);
+    t.checkExpect(r.update(3, new Color(255, 255, 255)), false);
+    t.checkExpect(r.update(3, Color.LIGHT_GRAY), true);
+    t.checkExpect(r.painted[3], Color.LIGHT_GRAY);
+    m.recolor(m.vertex(4), Color.LIGHT_GRAY);
+    t.checkExpect(r.painted[4], Color.LIGHT_GRAY);
+    m.makeScene();
+    t.checkExpect(m.renderer, r);
+  }
+
+  //test drawing a maze straight into a pixel buffer
+  void testMazeRaster(Tester t) {
+    MazeGrid g = KruskalBuilder.generate(150, 90, 4, 100);
+    MazeRaster r = new MazeRaster(g, 5, 4);
+    r.paintAll(cell -> cell == 0 ? 0xFF0000 : 0xFFFFFF);
+    t.checkExpect(r.pixelWidth(), 750);
+    t.checkExpect(r.pixelHeight(), 360);
+    t.checkExpect(r.pixel(2, 2), 0xFF0000);
+    t.checkExpect(r.pixel(0, 0), MazeRaster.WALL);
+    t.checkExpect(r.pixel(7, 1), 0xFFFFFF);
+    t.checkExpect(r.pixel(4, 1), g.hasEast(0) ? 0xFF0000 : MazeRaster.WALL);
+    t.checkExpect(r.pixel(747, 358), 0xFFFFFF);
+    t.checkExpect(r.pixel(749, 358), MazeRaster.WALL);
+    t.checkExpect(r.pixel(2, 359), g.hasSouth(g.index(0, 89)) ? 0xFFFFFF : MazeRaster.WALL);
+    try {
+      File file = File.createTempFile("maze", ".png");
+      file.deleteOnExit();
+      r.writePng(file.toPath());
+      java.awt.image.BufferedImage back = javax.imageio.ImageIO.read(file);
+      t.checkExpect(back.getWidth(), 750);
+      t.checkExpect(back.getRGB(2, 2) & 0xFFFFFF, 0xFF0000);
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    
+    Maze m = new Maze(10, 6, 31);
+    MazeRenderer renderer = m.renderer;
+    t.checkExpect(renderer.layer.getPixel(3, 3), new Color(128, 206, 225));
+    t.checkExpect(renderer.layer.getPixel(0, 0), MazeRenderer.WALL);
+    renderer.update(0, Color.LIGHT_GRAY);
+    t.checkExpect(renderer.raster.pixel(3, 3), Color.LIGHT_GRAY.getRGB() & 0xFFFFFF);
+    t.checkExpect(renderer.layer.getPixel(3, 3), Color.LIGHT_GRAY);
+    
+    MazeGrid big = KruskalBuilder.generate(500, 300, 9, 100);
+    MazeRaster small = new MazeRaster(big, 2, 2);
+    small.paintAll(cell -> 0xFFFFFF);
+    t.checkExpect(small.thin, true);
+    t.checkExpect(small.pixelWidth(), 1001);
+    t.checkExpect(small.pixelHeight(), 601);
+    boolean border = true;
+    for (int x = 0; x < small.pixelWidth(); x++) {
+      border = border && small.pixel(x, 0) == MazeRaster.WALL;
+    }
+    for (int y = 0; y < small.pixelHeight(); y++) {
+      border = border && small.pixel(0, y) == MazeRaster.WALL
+          && small.pixel(1000, y) == MazeRaster.WALL;
+    }
+    t.checkExpect(border, true);
+    int walls = 0;
+    boolean matches = true;
+    for (int cell = 0; cell < big.cells(); cell++) {
+      int x = 2 * big.x(cell) + 1;
+      int y = 2 * big.y(cell) + 1;
+      matches = matches && small.pixel(x, y) == 0xFFFFFF
+          && small.pixel(x + 1, y + 1) == MazeRaster.WALL
+          && small.pixel(x + 1, y) == (big.hasEast(cell) ? 0xFFFFFF : MazeRaster.WALL)
+          && small.pixel(x, y + 1) == (big.hasSouth(cell) ? 0xFFFFFF : MazeRaster.WALL);
+      walls += small.pixel(x + 1, y) == MazeRaster.WALL ? 1 : 0;
+    }
+    t.checkExpect(matches, true);
+    t.checkExpect(walls > 0, true);
+    MazeRaster dots = new MazeRaster(big, 1, 1);
+    dots.paintAll(cell -> cell == big.cells() - 1 ? 0xFF0000 : 0xFFFFFF);
+    t.checkExpect(dots.pixelWidth(), 501);
+    t.checkExpect(dots.pixel(0, 0), MazeRaster.WALL);
+    t.checkExpect(dots.pixel(1, 1), 0xFFFFFF);
+    t.checkExpect(dots.pixel(500, 300), 0xFF0000);
+    t.checkExpect(MazeRaster.scaleFor(1000, 20), 50);
+    t.checkExpect(MazeRaster.scaleFor(1000, 400), 2);
+    t.checkExpect(MazeRaster.scaleFor(1000, 500), 1);
+    t.checkExpect(MazeRaster.scaleFor(1000, 2000), 1);
+    Maze wide = new Maze(800, 4, 3);
+    t.checkExpect(wide.renderer.pixelWidth() <= 1000, true);
+    t.checkExpect(new Maze(400, 4, 3).renderer.pixelWidth(), 801);
+    Maze thin = new Maze(400, 250, 3);
+    thin.paint(0, Color.RED);
+    t.checkExpect(thin.renderer.layer.getPixel(1, 1), Color.RED);
+    t.checkExpect(thin.renderer.layer.getPixel(0, 1), MazeRenderer.WALL);
+  }
+
+  //test writing mazes and reading them back in the binary format
+  void testMazeIO(Tester t) {
+    MazeGrid a = KruskalBuilder.generate(13, 7, 1, 100);
+    MazeGrid b = KruskalBuilder.generate(4, 4, 2, 100);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      MazeWriter writer = new MazeWriter(Channels.newChannel(bytes));
+      writer.write(a, 1);
+      writer.write(b, 2);
+      writer.close();
+      t.checkExpect(bytes.size(), 2 * MazeIO.HEADER_BYTES + 23 + 4);
+      
+      MazeReader reader = new MazeReader(Channels.newChannel(
+          new ByteArrayInputStream(bytes.toByteArray())));
+      MazeGrid a2 = reader.next();
+      t.checkExpect(reader.seed, 1L);
+      MazeGrid b2 = reader.next();
+      t.checkExpect(reader.seed, 2L);
+      t.checkExpect(reader.next(), null);
+      t.checkExpect(a2.width, 13);
+      t.checkExpect(a2.passages, a.passages);
+      t.checkExpect(b2.passages, b.passages);
+      
+      Maze loaded = new Maze(b2, reader.seed);
+      t.checkExpect(loaded.seed, 2L);
+      loaded.onKeyEvent("r");
+      t.checkExpect(loaded.grid.passages,
+          new Maze(4, 4, EdgeWeights.next(2)).grid.passages);
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    
+    MazeGrid east = new MazeGrid(4, 3);
+    east.open(2 * east.index(3, 1) + MazeGrid.EAST);
+    t.checkExpect(east.strayEdge(), 14);
+    t.checkExpect(this.readError(east), "Passage out of the 4x3 maze at edge id 14");
+    MazeGrid south = new MazeGrid(4, 3);
+    south.open(2 * south.index(2, 2) + MazeGrid.SOUTH);
+    t.checkExpect(this.readError(south), "Passage out of the 4x3 maze at edge id 21");
+    MazeGrid padding = new MazeGrid(3, 3);
+    padding.passages[0] |= 1L << 20;
+    t.checkExpect(padding.strayEdge(), 20);
+    t.checkExpect(this.readError(padding), "Passage out of the 3x3 maze at edge id 20");
+    t.checkExpect(this.readError(a), null);
+    t.checkExpect(a.strayEdge(), -1);
+  }
+
+  // the message of the IOException reading back the given maze throws, or
+  // null when it reads back
+  String readError(MazeGrid g) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      MazeWriter writer = new MazeWriter(Channels.newChannel(bytes));
+      writer.write(g, 0);
+      writer.close();
+      new MazeReader(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray()))).next();
+      return null;
+    } catch (IOException e) {
+      return e.getMessage();
+    }
+  }
+
+  //test headless batch generation streamed to a writer
+  void testMazeBatch(Tester t) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try {
+      MazeWriter writer = new MazeWriter(Channels.newChannel(bytes));
+      t.checkExpect(new MazeBatch(6, 5, 40, 10).run(writer), 10);
+      writer.close();
+      MazeReader reader = new MazeReader(Channels.newChannel(
+          new ByteArrayInputStream(bytes.toByteArray())));
+      for (int i = 0; i < 10; i++) {
+        MazeGrid g = reader.next();
+        t.checkExpect(reader.seed, 40L + i);
+        t.checkExpect(g.passages, new MazeBatch(6, 5, 40, 10).generate(40 + i).passages);
+      }
+    } catch (IOException | InterruptedException e) {
+      t.checkExpect(e, null);
+    }
+    
+    MazeBatch failing = new MazeBatch(6, 5, 40, 200) {
+      MazeGrid generate(long mazeSeed) {
+        if (mazeSeed == 40 + 100) {
+          throw new OutOfMemoryError("generate failed");
+        }
+        return super.generate(mazeSeed);
+      }
+    };
+    String thrown = null;
+    try {
+      failing.run(new MazeWriter(Channels.newChannel(new ByteArrayOutputStream())));
+    }
+    catch (OutOfMemoryError e) {
+      thrown = e.getMessage();
+    }
+    catch (IOException | InterruptedException e) {
+      t.checkExpect(e, null);
+    }
+    t.checkExpect(thrown, "generate failed");
+  }
+
+  //test concurrent generation with MazeService
+  void testMazeService(Tester t) {
+    MazeService service = new MazeService(3);
+    List<Future<?>> tasks = service.submitAll(15, 10, 77, 20);
+    t.checkExpect(tasks.size(), 20);
+    HashMap<Long, MazeGrid> made = new HashMap<Long, MazeGrid>();
+    try {
+      for (int i = 0; i < 20; i++) {
+        GeneratedMaze m = service.take();
+        made.put(m.seed, m.grid);
+      }
+    } catch (InterruptedException e) {
+      t.checkExpect(e, null);
+    }
+    service.close();
+    t.checkExpect(made.size(), 20);
+    boolean same = true;
+    for (Map.Entry<Long, MazeGrid> e : made.entrySet()) {
+      same = same && e.getValue().passageCount() == 149
+          && Arrays.equals(e.getValue().passages,
+              MazeService.generate(15, 10, e.getKey()).passages);
+    }
+    t.checkExpect(same, true);
+  }
+
+  //test seeded generation is reproducible
+  void testSeededGeneration(Tester t) {
+    Maze a = new Maze(12, 9, 2024);
+    long[] passages = a.grid.passages.clone();
+    Maze b = new Maze(12, 9, 2024);
+    t.checkExpect(b.grid.passages, passages);
+    t.checkExpect(KruskalBuilder.generate(12, 9, 2024, 100).passages, passages);
+    t.checkExpect(Arrays.equals(b.grid.passages, passages), true);
+    t.checkExpect(Arrays.equals(new Maze(12, 9, 2025).grid.passages, passages), false);
+    a.onKeyEvent("r");
+    t.checkExpect(a.seed, EdgeWeights.next(2024));
+    t.checkExpect(a.grid.passages, new Maze(12, 9, EdgeWeights.next(2024)).grid.passages);
+  }
+
+  //test regenerating refills the buffers of the current maze in place
+  void testRegenerateInPlace(Tester t) {
+    Maze m = new Maze(10, 6, 31);
+    m.searchBFS(m.start, m.target);
+    m.onTick();
+    m.connected(m.start, m.target);
+    MazeGrid grid = m.grid;
+    GridSolver solver = m.solver;
+    MazeRenderer renderer = m.renderer;
+    DisjointSet sets = m.sets;
+    KruskalBuilder builder = m.builder;
+    Color[] colors = m.colors;
+    Vertex start = m.start;
+    m.onKeyEvent("r");
+    Maze fresh = new Maze(10, 6, m.seed);
+    t.checkExpect(m.grid == grid, true);
+    t.checkExpect(m.solver == solver, true);
+    t.checkExpect(m.renderer == renderer, true);
+    t.checkExpect(m.sets == sets, true);
+    t.checkExpect(m.builder == builder, true);
+    t.checkExpect(m.colors == colors, true);
+    t.checkExpect(m.start == start, true);
+    t.checkExpect(m.grid.passages, fresh.grid.passages);
+    t.checkExpect(m.builder.edges, fresh.builder.edges);
+    t.checkExpect(m.colors, fresh.colors);
+    t.checkExpect(m.renderer.painted, fresh.renderer.painted);
+    t.checkExpect(m.playback.isDone(), true);
+    t.checkExpect(m.solver.metrics.expanded, 0);
+    t.checkExpect(m.connected(m.start, m.target), true);
+    t.checkExpect(m.sets.sets, 1);
+    m.searchBFS(m.start, m.target);
+    fresh.searchBFS(fresh.start, fresh.target);
+    t.checkExpect(m.solver.pathStream().toArray(), fresh.solver.pathStream().toArray());
+    
+    m.onKeyEvent("3");
+    t.checkExpect(m.grid == grid, true);
+    t.checkExpect(m.grid.passages,
+        new WilsonGenerator().generate(10, 6, m.seed).passages);
+    t.checkExpect(m.grid.passageCount(), 59);
+    t.checkExpect(m.connected(m.start, m.target), true);
+    m.onKeyEvent("1");
+    t.checkExpect(m.grid.passages, new Maze(10, 6, m.seed).grid.passages);
+    
+    Maze warm = new Maze(40, 30, 5);
+    warm.onKeyEvent("r");
+    int[] weights = warm.builder.weights;
+    int[] edges = warm.builder.edges;
+    long[] passages = warm.grid.passages;
+    int[] parent = warm.sets.parent;
+    warm.onKeyEvent("r");
+    t.checkExpect(warm.builder.weights == weights, true);
+    t.checkExpect(warm.builder.edges == edges, true);
+    t.checkExpect(warm.grid.passages == passages, true);
+    t.checkExpect(warm.sets.parent == parent, true);
+    t.checkExpect(warm.grid.passages, new Maze(40, 30, warm.seed).grid.passages);
+    
+    new Maze(12, 9, 1);
+    warm.onKeyEvent("r");
+    t.checkExpect(warm.grid.width, 40);
+    t.checkExpect(warm.grid.passages == passages, true);
+    t.checkExpect(warm.target, new Vertex(39, 29));
+    t.checkExpect(Maze.MAZE_WIDTH, 20);
+    t.checkExpect(Maze.SCALE_WIDTH, 50);
+    warm.initSize(12, 9);
+    warm.onKeyEvent("r");
+    t.checkExpect(warm.grid.width, 12);
+    t.checkExpect(warm.colors.length, 108);
+    t.checkExpect(warm.target, new Vertex(11, 8));
+  }
+
+  //test parallel generation is the same for every number of threads
+  void testParallelDeterminism(Tester t) {
+    ForkJoinPool one = new ForkJoinPool(1);
+    ForkJoinPool three = new ForkJoinPool(3);
+    MazeGrid a = ParallelKruskal.generate(700, 300, 99, 100, one);
+    MazeGrid b = ParallelKruskal.generate(700, 300, 99, 100, three);
+    one.shutdown();
+    three.shutdown();
+    t.checkExpect(a.passages, b.passages);
+    t.checkExpect(a.passageCount(), 700 * 300 - 1);
+  }
+
+  //test the counter-based edge weights
+  void testEdgeWeights(Tester t) {
+    t.checkExpect(EdgeWeights.weight(5, 17, 100), EdgeWeights.weight(5, 17, 100));
+    boolean inRange = true;
+    int[] counts = new int[10];
+    for (int e = 0; e < 10000; e++) {
+      int w = EdgeWeights.weight(1, e, 10);
+      inRange = inRange && w >= 0 && w < 10;
+      counts[Math.max(0, Math.min(9, w))]++;
+    }
+    t.checkExpect(inRange, true);
+    for (int c : counts) {
+      t.checkNumRange(c, 850, 1150);
+    }
+  }
+
+  // checks that the given grid is a perfect maze: a spanning tree of the grid
+  boolean isPerfect(MazeGrid g) {
+    DisjointSet ds = new DisjointSet(g.cells());
+    boolean acyclic = true;
+    for (int edge = 0; edge < g.edgeIds(); edge++) {
+      if (g.isOpen(edge)) {
+        acyclic = acyclic && g.isCandidate(edge) && ds.union(g.edgeFrom(edge), g.edgeTo(edge));
+      }
+    }
+    return acyclic && ds.sets == 1;
+  }
+
+  //test every MazeGenerator produces reproducible perfect mazes
+  void testGenerators(Tester t) {
+    MazeGenerator[] gens = {new KruskalGenerator(), new BacktrackerGenerator(),
+      new WilsonGenerator(), new EllerGenerator(), new ParallelKruskalGenerator()};
+    for (MazeGenerator gen : gens) {
+      t.checkExpect(this.isPerfect(gen.generate(23, 17, 5)), true);
+      t.checkExpect(this.isPerfect(gen.generate(1, 9, 5)), true);
+      t.checkExpect(this.isPerfect(gen.generate(9, 1, 5)), true);
+      t.checkExpect(this.isPerfect(gen.generate(1, 1, 5)), true);
+      t.checkExpect(gen.generate(23, 17, 5).passages, gen.generate(23, 17, 5).passages);
+    }
+    t.checkExpect(new KruskalGenerator().generate(12, 9, 2024).passages,
+        new Maze(12, 9, 2024).grid.passages);
+  }
+
+  //test generating into a grid gives the maze of a fresh grid and reuses the
+  //buffers of the generator
+  void testGenerateInto(Tester t) {
+    MazeGenerator[] gens = {new KruskalGenerator(), new BacktrackerGenerator(),
+      new WilsonGenerator(), new EllerGenerator(), new ParallelKruskalGenerator()};
+    for (MazeGenerator gen : gens) {
+      MazeGrid grid = new MazeGrid(23, 17);
+      gen.generate(grid, 5);
+      t.checkExpect(grid.passages, gen.generate(23, 17, 5).passages);
+      gen.generate(grid, 6);
+      t.checkExpect(grid.passages, gen.generate(23, 17, 6).passages);
+      MazeGrid small = new MazeGrid(4, 3);
+      gen.generate(small, 6);
+      t.checkExpect(small.passages, gen.generate(4, 3, 6).passages);
+      long[] passages = grid.passages;
+      gen.generate(grid, 8);
+      t.checkExpect(grid.passages == passages, true);
+      t.checkExpect(grid.passages, gen.generate(23, 17, 8).passages);
+    }
+    
+    KruskalGenerator kruskal = new KruskalGenerator();
+    MazeGrid into = new MazeGrid(23, 17);
+    kruskal.generate(into, 7);
+    KruskalBuilder builder = kruskal.builder;
+    int[] weights = builder.weights;
+    kruskal.generate(into, 8);
+    t.checkExpect(kruskal.builder == builder, true);
+    t.checkExpect(kruskal.builder.weights == weights, true);
+    BacktrackerGenerator backtracker = new BacktrackerGenerator();
+    backtracker.generate(into, 7);
+    long[] seen = backtracker.seen;
+    int[] stack = backtracker.stack;
+    backtracker.generate(into, 8);
+    t.checkExpect(backtracker.seen == seen, true);
+    t.checkExpect(backtracker.stack == stack, true);
+    WilsonGenerator wilson = new WilsonGenerator();
+    wilson.generate(into, 7);
+    long[] inMaze = wilson.inMaze;
+    int[] exit = wilson.exit;
+    wilson.generate(into, 8);
+    t.checkExpect(wilson.inMaze == inMaze, true);
+    t.checkExpect(wilson.exit == exit, true);
+    EllerGenerator eller = new EllerGenerator();
+    eller.generate(into, 7);
+    int[] label = eller.label;
+    long[] east = eller.east;
+    eller.generate(into, 8);
+    t.checkExpect(eller.label == label, true);
+    t.checkExpect(eller.east == east, true);
+    t.checkExpect(into.passages, eller.generate(23, 17, 8).passages);
+    
+    Maze m = new Maze(10, 6, 31);
+    MazeGrid grid = m.grid;
+    m.onKeyEvent("4");
+    m.onKeyEvent("r");
+    t.checkExpect(m.grid == grid, true);
+    t.checkExpect(m.grid.passages, new EllerGenerator().generate(10, 6, m.seed).passages);
+  }
+
+  //test Eller's algorithm streams one row at a time
+  void testEllerStream(Tester t) {
+    int[] rows = new int[1];
+    int[] souths = new int[1];
+    new EllerGenerator().stream(70, 500, 3, (y, east, south) -> {
+      t.checkExpect(y, rows[0]);
+      t.checkExpect(east.length, 2);
+      rows[0]++;
+      souths[0] += Long.bitCount(south[0]) + Long.bitCount(south[1]);
+      if (y == 499) {
+        t.checkExpect(Long.bitCount(south[0]) + Long.bitCount(south[1]), 0);
+      }
+    });
+    t.checkExpect(rows[0], 500);
+    t.checkExpect(souths[0] > 499, true);
+  }
+
+  //test picking a generator with the keys
+  void testGeneratorKeys(Tester t) {
+    Maze m = new Maze(10, 6, 8, new WilsonGenerator());
+    t.checkExpect(m.grid.passages, new WilsonGenerator().generate(10, 6, 8).passages);
+    t.checkExpect(m.grid.passageCount(), 59);
+    m.onKeyEvent("2");
+    t.checkExpect(m.generator == m.generators[1], true);
+    t.checkExpect(m.generator instanceof BacktrackerGenerator, true);
+    Maze other = new Maze(10, 6, 8);
+    other.onKeyEvent("2");
+    t.checkExpect(other.generator != m.generator, true);
+    t.checkExpect(m.grid.passages,
+        new BacktrackerGenerator().generate(10, 6, EdgeWeights.next(8)).passages);
+    t.checkExpect(m.connected(m.start, m.target), true);
+    m.onKeyEvent("4");
+    t.checkExpect(this.isPerfect(m.grid), true);
+    t.checkExpect(m.walls().size(), m.grid.wallCount());
+    m.onKeyEvent("5");
+    t.checkExpect(m.generator instanceof ParallelKruskalGenerator, true);
+    t.checkExpect(m.grid.passages,
+        new ParallelKruskalGenerator().generate(10, 6, m.seed).passages);
+  }
+
+  //test the streaming pipeline writes the same bytes as MazeWriter
+  void testMazePipeline(Tester t) {
+    int[][] sizes = {{70, 45}, {32, 3}, {5, 200}, {1, 1}};
+    for (int[] size : sizes) {
+      ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+      ByteArrayOutputStream whole = new ByteArrayOutputStream();
+      try {
+        PipelineReport report = new MazePipeline(size[0], size[1], 17, 4, 3)
+            .run(Channels.newChannel(streamed), true);
+        MazeWriter writer = new MazeWriter(Channels.newChannel(whole));
+        writer.write(new EllerGenerator().generate(size[0], size[1], 17), 17);
+        writer.close();
+        t.checkExpect(streamed.toByteArray(), whole.toByteArray());
+        t.checkExpect(report.rows, (long) size[1]);
+        t.checkExpect(report.bytes, (long) whole.size());
+        t.checkExpect(report.checker.perfect(), true);
+        t.checkExpect(report.checker.solvable, true);
+        t.checkExpect(report.checker.passages, (long) size[0] * size[1] - 1);
+      } catch (IOException | InterruptedException e) {
+        t.checkExpect(e, null);
+      }
+    }
+  }
+
+  // feeds the given grid to a StreamingChecker row by row
+  //test a failing stage of MazePipeline stops the others and is thrown
+  void testMazePipelineFailure(Tester t) {
+    MazePipeline failingChecker = new MazePipeline(5, 200, 17, 4, 3) {
+      StreamingChecker checker() {
+        return new StreamingChecker(this.width) {
+          void row(long[] east, long[] south, int offset, boolean last) {
+            if (this.rows == 10) {
+              throw new IllegalStateException("check failed");
+            }
+            super.row(east, south, offset, last);
+          }
+        };
+      }
+    };
+    MazePipeline failingGenerator = new MazePipeline(5, 200, 17, 4, 3) {
+      void stream(RowSink sink) {
+        super.stream((y, east, south) -> {
+          if (y == 50) {
+            throw new IllegalStateException("generate failed");
+          }
+          sink.row(y, east, south);
+        });
+      }
+    };
+    MazePipeline[] pipelines = {failingChecker, failingGenerator, failingGenerator};
+    boolean[] checks = {true, true, false};
+    String[] messages = {"check failed", "generate failed", "generate failed"};
+    for (int i = 0; i < pipelines.length; i++) {
+      String thrown = null;
+      try {
+        pipelines[i].run(Channels.newChannel(new ByteArrayOutputStream()), checks[i]);
+      }
+      catch (IllegalStateException e) {
+        thrown = e.getMessage();
+      }
+      catch (IOException | InterruptedException e) {
+        t.checkExpect(e, null);
+      }
+      t.checkExpect(thrown, messages[i]);
+    }
+  }
+
+  StreamingChecker checkRows(MazeGrid g) {
+    StreamingChecker c = new StreamingChecker(g.width);
+    long[] east = new long[(g.width + 63) >>> 6];
+    long[] south = new long[east.length];
+    for (int y = 0; y < g.height; y++) {
+      Arrays.fill(east, 0L);
+      Arrays.fill(south, 0L);
+      for (int x = 0; x < g.width; x++) {
+        if (g.hasEast(g.index(x, y))) {
+          east[x >>> 6] |= 1L << x;
+        }
+        if (g.hasSouth(g.index(x, y))) {
+          south[x >>> 6] |= 1L << x;
+        }
+      }
+      c.row(east, south, 0, y == g.height - 1);
+    }
+    return c;
+  }
+
+  //test the StreamingChecker finds cycles and cut off regions
+  void testStreamingChecker(Tester t) {
+    MazeGrid g = KruskalBuilder.generate(9, 7, 3, 100);
+    t.checkExpect(this.checkRows(g).perfect(), true);
+    t.checkExpect(this.checkRows(g).solvable, true);
+    
+    MazeGrid loop = new MazeGrid(2, 2);
+    loop.open(loop.edgeId(0, 1));
+    loop.open(loop.edgeId(0, 2));
+    loop.open(loop.edgeId(1, 3));
+    loop.open(loop.edgeId(2, 3));
+    t.checkExpect(this.checkRows(loop).cycle, true);
+    
+    MazeGrid cut = new MazeGrid(3, 3);
+    cut.open(cut.edgeId(0, 1));
+    cut.open(cut.edgeId(2, 5));
+    cut.open(cut.edgeId(3, 4));
+    cut.open(cut.edgeId(4, 5));
+    cut.open(cut.edgeId(5, 8));
+    cut.open(cut.edgeId(6, 7));
+    cut.open(cut.edgeId(7, 8));
+    StreamingChecker c = this.checkRows(cut);
+    t.checkExpect(c.cycle, false);
+    t.checkExpect(c.disconnected, true);
+    t.checkExpect(c.solvable, false);
+  }
+
+  //test loading a MazeGrid into a Maze
+  void testMazeFromGrid(Tester t) {
+    MazeGrid g = KruskalBuilder.generate(10, 6, 5, 100);
+    Maze m = new Maze(g);
+    t.checkExpect(m.grid, g);
+    t.checkExpect(m.grid.passageCount(), 59);
+    t.checkExpect(m.walls().size(), m.grid.wallCount());
+    ArrayList<ArrayList<Vertex>> rows = m.vertices;
+    t.checkExpect(rows.get(0).get(0).hasPathBetween(rows.get(5).get(9)), true);
+  }
+
+  //test reading a persisted maze through a memory mapping
+  void testMappedMaze(Tester t) {
+    MazeGrid g = KruskalBuilder.generate(37, 11, 9, 100);
+    try {
+      File file = File.createTempFile("maze", ".bin");
+      file.deleteOnExit();
+      MazeWriter writer = MazeWriter.create(file.toPath());
+      writer.write(g, 9);
+      writer.close();
+      
+      MappedMaze m = new MappedMaze(file.toPath());
+      t.checkExpect(m.width(), 37);
+      t.checkExpect(m.height(), 11);
+      t.checkExpect(m.seed, 9L);
+      t.checkExpect(m.cellCount(), 407L);
+      int[] a = new int[4];
+      int[] b = new int[4];
+      boolean same = true;
+      for (int cell = 0; cell < g.cells(); cell++) {
+        same = same && m.hasEast(cell) == g.hasEast(cell) && m.hasSouth(cell) == g.hasSouth(cell)
+            && m.neighbors(cell, a) == g.neighbors(cell, b) && Arrays.equals(a, b);
+      }
+      t.checkExpect(same, true);
+      t.checkExpect(m.hasEast(m.index(3, 2)), g.hasEast(g.index(3, 2)));
+      t.checkExpect(m.toGrid().passages, g.passages);
+      m.close();
+      
+      MazeGrid bad = new MazeGrid(4, 3);
+      bad.open(2 * bad.index(1, 2) + MazeGrid.SOUTH);
+      writer = MazeWriter.create(file.toPath());
+      writer.write(bad, 0);
+      writer.close();
+      String error = null;
+      try {
+        new MappedMaze(file.toPath()).close();
+      } catch (IOException e) {
+        error = e.getMessage();
+      }
+      t.checkExpect(error, "Passage out of the 4x3 maze at edge id 19 in " + file.toPath());
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  //test a mapped maze with more cells than int ids can address
+  void testHugeMappedMaze(Tester t) {
+    try {
+      File file = File.createTempFile("huge", ".bin");
+      file.deleteOnExit();
+      MazeWriter writer = MazeWriter.create(file.toPath());
+      writer.write(new MazeGrid(1, 1), 7);
+      writer.close();
+      long cell = 2_400_000_000L;
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+        raf.seek(8);
+        raf.writeInt(Integer.reverseBytes(50000));
+        raf.writeInt(Integer.reverseBytes(50000));
+        raf.setLength(MazeIO.HEADER_BYTES + MazeIO.dataBytes(50000, 50000));
+        raf.seek(MazeIO.HEADER_BYTES + (2 * cell + MazeGrid.EAST) / 8);
+        raf.write(1 << (int) ((2 * cell + MazeGrid.EAST) % 8));
+      }
+      
+      try (MappedMaze m = new MappedMaze(file.toPath())) {
+        t.checkExpect(m.cellCount(), 2_500_000_000L);
+        t.checkExpect(m.hasEast(cell), true);
+        t.checkExpect(m.hasWest(cell + 1), true);
+        t.checkExpect(m.hasSouth(cell), false);
+        t.checkExpect(m.degree(cell), 1);
+        long[] next = new long[4];
+        t.checkExpect(m.neighbors(cell + 1, next), 1);
+        t.checkExpect(next[0], cell);
+        String error = null;
+        try {
+          new GridSolver(m);
+        } catch (IllegalStateException e) {
+          error = e.getMessage();
+        }
+        t.checkExpect(error, "Maze of 50000x50000 has 2500000000 cells, more than int cell"
+            + " ids can address; use the long cell methods");
+      }
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+    MazeGrid g = KruskalBuilder.generate(6, 4, 3, 100);
+    t.checkExpect(g.cellCount(), 24L);
+    t.checkExpect(g.degree(7L), g.degree(7));
+    t.checkExpect(g.hasNorth(9L), g.hasNorth(9));
+  }
+
+  //test breadth first search with GridSolver
+  void testGridSolverBFS(Tester t) {
+    MazeGrid g = new MazeGrid(3, 2);
+    g.open(g.edgeId(0, 1));
+    g.open(g.edgeId(1, 2));
+    g.open(g.edgeId(2, 5));
+    g.open(g.edgeId(0, 3));
+    g.open(g.edgeId(3, 4));
+    GridSolver s = new GridSolver(g);
+    t.checkExpect(s.bfs(0, 5), true);
+    t.checkExpect(s.pathStream().toArray(), new int[] {0, 1, 2, 5});
+    t.checkExpect(s.traceStream().toArray(), new int[] {0, 1, 3, 2, 4, 5});
+    t.checkExpect(s.wrongMoves, 4);
+    t.checkExpect(s.bfs(4, 4), true);
+    t.checkExpect(s.pathStream().toArray(), new int[] {4});
+    g.close(g.edgeId(2, 5));
+    t.checkExpect(s.bfs(0, 5), false);
+    t.checkExpect(s.pathLength, 0);
+    t.checkExpect(s.traceLength, 5);
+  }
+
+  //test depth first search with GridSolver
+  void testGridSolverDFS(Tester t) {
+    MazeGrid g = new MazeGrid(3, 2);
+    g.open(g.edgeId(0, 1));
+    g.open(g.edgeId(1, 2));
+    g.open(g.edgeId(2, 5));
+    g.open(g.edgeId(0, 3));
+    g.open(g.edgeId(3, 4));
+    GridSolver s = new GridSolver(g);
+    t.checkExpect(s.dfs(0, 5), true);
+    t.checkExpect(s.pathStream().toArray(), new int[] {0, 1, 2, 5});
+    t.checkExpect(s.traceStream().toArray(), new int[] {0, 3, 4, 1, 2, 5});
+  }
+
+  //test searchBFS and searchDFS on a generated maze
+  void testSearch(Tester t) {
+    Maze m = new Maze(10, 6);
+    m.searchBFS(m.vertex(0), m.vertex(59));
+    int bfsLength = m.solver.pathLength;
+    t.checkExpect(m.solver.path[0], 0);
+    t.checkExpect(m.solver.path[bfsLength - 1], 59);
+    m.searchDFS(m.vertex(0), m.vertex(59));
+    t.checkExpect(m.solver.pathLength, bfsLength);
+    boolean adjacent = true;
+    for (int i = 1; i < bfsLength; i++) {
+      adjacent = adjacent && m.grid.hasPassage(m.solver.path[i - 1], m.solver.path[i]);
+    }
+    t.checkExpect(adjacent, true);
+  }
+
+  //test A* and bidirectional search with GridSolver against BFS
+  void testGridSolverAStarBidirectional(Tester t) {
+    MazeGrid g = KruskalBuilder.generate(25, 17, 4, 100);
+    GridSolver s = new GridSolver(g);
+    Random r = new Random(8);
+    boolean same = true;
+    for (int q = 0; q < 50; q++) {
+      int a = r.nextInt(g.cells());
+      int b = r.nextInt(g.cells());
+      s.bfs(a, b);
+      int[] expected = s.pathStream().toArray();
+      t.checkExpect(s.expanded, s.traceLength);
+      s.astar(a, b);
+      same = same && Arrays.equals(s.pathStream().toArray(), expected);
+      s.bidirectional(a, b);
+      same = same && Arrays.equals(s.pathStream().toArray(), expected);
+    }
+    t.checkExpect(same, true);
+  }
+
+  //test bidirectional search finds a shortest path when the maze has loops
+  void testBidirectionalLoops(Tester t) {
+    MazeGrid g = new MazeGrid(3, 3);
+    for (int id = 0; id < g.edgeIds(); id++) {
+      if (g.isCandidate(id)) {
+        g.open(id);
+      }
+    }
+    GridSolver s = new GridSolver(g);
+    t.checkExpect(s.bidirectional(0, 8), true);
+    t.checkExpect(s.pathLength, 5);
+    t.checkExpect(s.astar(0, 8), true);
+    t.checkExpect(s.pathLength, 5);
+    t.checkExpect(s.bidirectional(0, 1), true);
+    t.checkExpect(s.pathStream().toArray(), new int[] {0, 1});
+    g.clear();
+    t.checkExpect(s.bidirectional(0, 8), false);
+    t.checkExpect(s.astar(0, 8), false);
+  }
+
+  //test the IntMinHeap
+  void testIntMinHeap(Tester t) {
+    IntMinHeap h = new IntMinHeap(5);
+    t.checkExpect(h.offer(3, 7), true);
+    t.checkExpect(h.offer(1, 4), true);
+    t.checkExpect(h.offer(4, 9), true);
+    t.checkExpect(h.offer(4, 2), true);
+    t.checkExpect(h.offer(1, 6), false);
+    t.checkExpect(h.contains(4), true);
+    t.checkExpect(h.poll(), 4);
+    t.checkExpect(h.contains(4), false);
+    t.checkExpect(h.poll(), 1);
+    t.checkExpect(h.poll(), 3);
+    t.checkExpect(h.isEmpty(), true);
+    h.offer(2, 1);
+    h.clear();
+    t.checkExpect(h.contains(2), false);
+  }
+
+  //test TreeIndex distances and paths against BFS
+  void testTreeIndex(Tester t) {
+    MazeGrid g = KruskalBuilder.generate(31, 23, 6, 100);
+    TreeIndex index = new TreeIndex(g);
+    GridSolver s = new GridSolver(g);
+    int[] out = new int[g.cells()];
+    Random r = new Random(2);
+    boolean same = true;
+    for (int q = 0; q < 200; q++) {
+      int a = r.nextInt(g.cells());
+      int b = r.nextInt(g.cells());
+      s.bfs(a, b);
+      int n = index.path(a, b, out);
+      same = same && index.distance(a, b) == s.pathLength - 1
+          && Arrays.equals(Arrays.copyOf(out, n), s.pathStream().toArray());
+    }
+    t.checkExpect(same, true);
+    t.checkExpect(index.depth[0], 0);
+    t.checkExpect(index.lca(0, 500), 0);
+    t.checkExpect(index.ancestor(500, 0), 0);
+  }
+
+  //test TreeIndex on a forest
+  void testTreeIndexForest(Tester t) {
+    MazeGrid g = new MazeGrid(4, 1);
+    g.open(g.edgeId(0, 1));
+    g.open(g.edgeId(2, 3));
+    TreeIndex index = new TreeIndex(g);
+    int[] out = new int[4];
+    t.checkExpect(index.distance(1, 0), 1);
+    t.checkExpect(index.distance(1, 3), -1);
+    t.checkExpect(index.path(0, 3, out), 0);
+    t.checkExpect(index.path(3, 2, out), 2);
+    t.checkExpect(out[0], 3);
+    t.checkExpect(out[1], 2);
+  }
+
+  //test the tree index of a Maze
+  void testMazeTreeIndex(Tester t) {
+    Maze m = new Maze(10, 6);
+    TreeIndex index = m.treeIndex();
+    t.checkExpect(m.treeIndex(), index);
+    m.searchBFS(m.start, m.target);
+    t.checkExpect(index.distance(0, 59), m.solver.pathLength - 1);
+  }
+
+  //test the measurements of every search
+  void testSearchMetrics(Tester t) {
+    Maze m = new Maze(10, 6, 31);
+    m.searchBFS(m.start, m.target);
+    SearchMetrics bfs = m.solver.metrics;
+    t.checkExpect(bfs.algorithm, "bfs");
+    t.checkExpect(bfs.found, true);
+    t.checkExpect(bfs.expanded, m.solver.traceLength);
+    t.checkExpect(bfs.pathLength, m.solver.pathLength);
+    t.checkExpect(bfs.peakFrontier > 0, true);
+    t.checkExpect(bfs.nanos >= 0, true);
+    int wrong = bfs.wrongMoves;
+    m.searchBFS(m.start, m.target);
+    t.checkExpect(m.solver.metrics.wrongMoves, wrong);
+    m.searchDFS(m.start, m.target);
+    m.searchAStar(m.start, m.target);
+    m.searchBidirectional(m.start, m.target);
+    t.checkExpect(m.metrics.searches, 5L);
+    t.checkExpect(m.metrics.get("bfs").searches, 2L);
+    t.checkExpect(m.metrics.get("bfs").pathLength.max, (long) m.solver.pathLength);
+    t.checkExpect(m.metrics.get("astar").found, 1L);
+    StringBuilder out = new StringBuilder();
+    try {
+      m.metrics.writeJsonLines(out);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    String[] lines = out.toString().split("\n");
+    t.checkExpect(lines.length, 4);
+    t.checkExpect(lines[0].startsWith("{\"algorithm\":\"bfs\",\"searches\":2,"), true);
+  }
+
+  //test the power of two histograms of the search metrics
+  void testLogHistogram(Tester t) {
+    LogHistogram h = new LogHistogram();
+    t.checkExpect(h.percentile(0.5), 0L);
+    h.record(0);
+    h.record(1);
+    h.record(5);
+    h.record(100);
+    h.record(-1);
+    t.checkExpect(h.count, 4L);
+    t.checkExpect(h.buckets[3], 1L);
+    t.checkExpect(h.percentile(0.5), 1L);
+    t.checkExpect(h.percentile(0.75), 7L);
+    t.checkExpect(h.percentile(1.0), 100L);
+    t.checkExpect(h.toJson(), "{\"count\":4,\"sum\":106,\"max\":100,\"p50\":1,"
+        + "\"p90\":100,\"p99\":100,\"buckets\":[1,1,0,1,0,0,0,1]}");
+  }
+
+  //test braiding opens loops at dead ends
+  void testBraid(Tester t) {
+    MazeGrid g = KruskalBuilder.generate(30, 20, 6, 100);
+    t.checkExpect(g.braid(6, 0), 0);
+    int passages = g.passageCount();
+    int opened = g.braid(6, 100);
+    t.checkExpect(opened > 0, true);
+    t.checkExpect(g.passageCount(), passages + opened);
+    boolean deadEnds = false;
+    for (int cell = 0; cell < g.cells(); cell++) {
+      deadEnds = deadEnds || g.degree(cell) == 1;
+    }
+    t.checkExpect(deadEnds, false);
+    
+    Maze m = new Maze(10, 6, 31);
+    int walls = m.walls().size();
+    opened = m.braid(50);
+    t.checkExpect(m.walls().size(), walls - opened);
+    t.checkExpect(m.grid.passageCount(), 59 + opened);
+    int out = 0;
+    for (ArrayList<Vertex> row : m.vertices) {
+      for (Vertex v : row) {
+        out += v.outEdges.size();
+      }
+    }
+    t.checkExpect(out, 2 * m.grid.passageCount());
+    m.onKeyEvent("w");
+    t.checkExpect(m.solver.metrics.algorithm, "zeroOne");
+    t.checkExpect(m.solver.pathCost, m.solver.pathLength - 1);
+  }
+
+  //test the cheapest path searches against each other and a brute force
+  void testWeightedSearch(Tester t) {
+    MazeGrid g = KruskalBuilder.generate(24, 16, 8, 100);
+    g.braid(8, 60);
+    GridSolver s = new GridSolver(g);
+    MazeCosts unit = new MazeCosts(g.cells());
+    t.checkExpect(unit.isBinary(), true);
+    s.bfs(0, g.cells() - 1);
+    int steps = s.pathLength;
+    s.cheapest(0, g.cells() - 1, unit);
+    t.checkExpect(s.metrics.algorithm, "zeroOne");
+    t.checkExpect(s.pathLength, steps);
+    t.checkExpect(s.pathCost, steps - 1);
+    s.dijkstra(0, g.cells() - 1, unit);
+    t.checkExpect(s.pathCost, steps - 1);
+    
+    MazeCosts binary = new MazeCosts(g.cells());
+    MazeCosts terrain = MazeCosts.terrain(g.cells(), 3, 9);
+    for (int c = 0; c < g.cells(); c++) {
+      binary.setCell(c, EdgeWeights.weight(5, c, 2));
+    }
+    binary.setCell(0, 0);
+    t.checkExpect(binary.isBinary(), true);
+    t.checkExpect(terrain.isBinary(), false);
+    terrain.setPassage(g.edgeId(0, 1), 7);
+    for (MazeCosts costs : Arrays.asList(binary, terrain)) {
+      int[] best = this.relax(g, costs, 0);
+      boolean same = true;
+      for (int target = 0; target < g.cells(); target += 37) {
+        s.cheapest(0, target, costs);
+        int zeroOneOrDijkstra = s.pathCost;
+        s.dijkstra(0, target, costs);
+        int cost = 0;
+        for (int i = 1; i < s.pathLength; i++) {
+          cost += costs.step(g.edgeId(s.path[i - 1], s.path[i]), s.path[i]);
+        }
+        same = same && s.pathCost == best[target] && zeroOneOrDijkstra == best[target]
+            && cost == best[target] && s.path[0] == 0 && s.path[s.pathLength - 1] == target;
+      }
+      t.checkExpect(same, true);
+    }
+    t.checkExpect(s.metrics.algorithm, "dijkstra");
+  }
+
+  // the cheapest costs from the given cell to every cell, by relaxing every
+  // passage until nothing changes
+  int[] relax(MazeGrid g, MazeCosts costs, int from) {
+    int[] best = new int[g.cells()];
+    Arrays.fill(best, Integer.MAX_VALUE);
+    best[from] = 0;
+    boolean changed = true;
+    int[] next = new int[4];
+    while (changed) {
+      changed = false;
+      for (int cell = 0; cell < g.cells(); cell++) {
+        if (best[cell] == Integer.MAX_VALUE) {
+          continue;
+        }
+        int n = g.neighbors(cell, next);
+        for (int i = 0; i < n; i++) {
+          int d = best[cell] + costs.step(g.edgeId(cell, next[i]), next[i]);
+          if (d < best[next[i]]) {
+            best[next[i]] = d;
+            changed = true;
+          }
+        }
+      }
+    }
+    return best;
+  }
+
+  //test the distance fields and pair queries of the batch solver
+  void testBatchSolver(Tester t) {
+    MazeGrid tree = KruskalBuilder.generate(40, 25, 12, 100);
+    MazeGrid loops = KruskalBuilder.generate(40, 25, 12, 100);
+    loops.braid(12, 50);
+    for (MazeGrid g : Arrays.asList(tree, loops)) {
+      BatchSolver b = new BatchSolver(g);
+      GridSolver s = new GridSolver(g);
+      t.checkExpect(b.isForest(), g == tree);
+      int[] field = b.distances(7);
+      int[] starts = new int[50];
+      int[] targets = new int[50];
+      boolean same = true;
+      for (int i = 0; i < 50; i++) {
+        starts[i] = i % 3 == 0 ? 7 : EdgeWeights.weight(1, i, g.cells());
+        targets[i] = EdgeWeights.weight(2, i, g.cells());
+        s.bfs(7, targets[i]);
+        same = same && field[targets[i]] == s.pathLength - 1;
+      }
+      t.checkExpect(same, true);
+      int[] answers = b.pairs(starts, targets);
+      same = true;
+      for (int i = 0; i < 50; i++) {
+        s.bfs(starts[i], targets[i]);
+        same = same && answers[i] == s.pathLength - 1;
+      }
+      t.checkExpect(same, true);
+      
+      int[] sources = new int[70];
+      for (int i = 0; i < 70; i++) {
+        sources[i] = EdgeWeights.weight(3, i, g.cells());
+      }
+      sources[5] = sources[4];
+      int[][] fields = b.distancesFrom(sources);
+      same = true;
+      for (int i = 0; i < 70; i++) {
+        same = same && Arrays.equals(fields[i], b.distances(sources[i]));
+      }
+      t.checkExpect(same, true);
+    }
+    
+    MazeGrid split = new MazeGrid(3, 1);
+    split.open(split.edgeId(0, 1));
+    BatchSolver b = new BatchSolver(split);
+    t.checkExpect(b.distances(0), new int[] {0, 1, -1});
+    t.checkExpect(b.pairs(new int[] {0, 2}, new int[] {2, 2}), new int[] {-1, 0});
+    t.checkExpect(b.distancesFrom(new int[] {2})[0], new int[] {-1, -1, 0});
+  }
+
+  //test the distance heat map of the world
+  void testHeatMap(Tester t) {
+    Maze m = new Maze(10, 6, 31);
+    m.onKeyEvent("h");
+    t.checkExpect(m.colors[0], Color.WHITE);
+    t.checkExpect(m.renderer.painted[0], Color.WHITE);
+    int far = m.batch().distances(0)[59];
+    t.checkExpect(m.colors[59].equals(Color.WHITE), far == 0);
+  }
+
+  //test the difficulty statistics of mazes
+  void testMazeAnalytics(Tester t) {
+    MazeGrid line = new MazeGrid(3, 2);
+    line.open(line.edgeId(0, 1));
+    line.open(line.edgeId(1, 2));
+    line.open(line.edgeId(2, 5));
+    line.open(line.edgeId(5, 4));
+    MazeStats s = MazeAnalytics.analyze(line, 3);
+    t.checkExpect(s.passages, 4L);
+    t.checkExpect(s.degrees, new long[] {1, 2, 3, 0, 0});
+    t.checkExpect(s.deadEnds(), 2L);
+    t.checkExpect(s.straight, 1L);
+    t.checkExpect(s.turns, 2L);
+    t.checkExpect(s.solution, 3);
+    t.checkExpect(s.diameter, 4);
+    t.checkExpect(s.horizontalRuns, 2L);
+    t.checkExpect(s.verticalRuns, 1L);
+    t.checkExpect(s.longestRun, 2);
+    t.checkExpect(s.toJson(), "{\"seed\":3,\"cells\":6,\"passages\":4,\"deadEnds\":2,"
+        + "\"junctions\":0,\"degrees\":[1,2,3,0,0],\"solution\":3,\"diameter\":4,"
+        + "\"river\":0.5000,\"straightness\":0.3333,\"meanRun\":1.333,\"longestRun\":2}");
+    
+    MazeGrid big = KruskalBuilder.generate(300, 250, 2, 100);
+    MazeStats b = MazeAnalytics.analyze(big, 2);
+    MazeStats whole = MazeAnalytics.band(big, 0, 250);
+    t.checkExpect(b.degrees, whole.degrees);
+    t.checkExpect(b.straight, whole.straight);
+    t.checkExpect(b.verticalRuns, whole.verticalRuns);
+    t.checkExpect(b.longestRun, whole.longestRun);
+    t.checkExpect(b.passages, (long) big.cells() - 1);
+    t.checkExpect(b.degrees[1] + 2 * b.degrees[2] + 3 * b.degrees[3] + 4 * b.degrees[4],
+        2 * b.passages);
+    t.checkExpect(b.solution, new TreeIndex(big).distance(0, big.cells() - 1));
+    t.checkExpect(b.diameter >= b.solution, true);
+    
+    Maze m = new Maze(10, 6, 31);
+    t.checkExpect(m.stats().solution, m.treeIndex().distance(0, 59));
+    t.checkExpect(m.stats(), m.stats());
+    m.braid(100);
+    t.checkExpect(m.stats().deadEnds(), 0L);
+    try {
+      File file = File.createTempFile("mazes", ".bin");
+      file.deleteOnExit();
+      MazeWriter writer = MazeWriter.create(file.toPath());
+      for (int i = 0; i < 70; i++) {
+        writer.write(KruskalBuilder.generate(20, 10, i, 100), i);
+      }
+      writer.close();
+      StringBuilder out = new StringBuilder();
+      MazeReader reader = MazeReader.open(file.toPath());
+      t.checkExpect(MazeAnalytics.run(reader, out), 70L);
+      reader.close();
+      String[] lines = out.toString().split("\n");
+      t.checkExpect(lines.length, 70);
+      t.checkExpect(lines[69], MazeAnalytics.analyze(KruskalBuilder.generate(20, 10, 69, 100),
+          69).toJson());
+    } catch (IOException e) {
+      t.checkExpect(e, null);
+    }
+  }
+
+  //test the search keys with other start and target cells
+  void testSearchKeys(Tester t) {
+    Maze m = new Maze(10, 6);
+    m.start = m.vertex(23);
+    m.target = m.vertex(45);
+    m.onKeyEvent("b");
+    int[] expected = m.solver.pathStream().toArray();
+    m.onKeyEvent("a");
+    t.checkExpect(m.solver.pathStream().toArray(), expected);
+    t.checkExpect(m.solver.metrics.expanded, m.solver.expanded);
+    m.onKeyEvent("t");
+    t.checkExpect(m.solver.pathStream().toArray(), expected);
+    t.checkExpect(expected[0], 23);
+    t.checkExpect(m.playback.isTracing(), true);
+  }
+
+  //test the animation of a search
+  void testOnTick(Tester t) {
+    Maze m = new Maze(10, 6);
+    m.onKeyEvent("b");
+    t.checkExpect(m.playback.isTracing(), true);
+    for (int i = 0; i < m.solver.traceLength; i++) {
+      m.onTick();
+    }
+    t.checkExpect(m.colors[m.solver.trace[0]], Color.LIGHT_GRAY);
+    t.checkExpect(m.playback.isSolving(), true);
+    for (int i = 0; i < m.solver.pathLength; i++) {
+      m.onTick();
+    }
+    t.checkExpect(m.colors[0], Maze.PATH_COLOR);
+    t.checkExpect(m.playback.isDone(), true);
+  }
+
+  //test replaying a search in batches, in a frame budget and skipped
+  void testPlayback(Tester t) {
+    Maze m = new Maze(10, 6, 31);
+    m.onKeyEvent("b");
+    m.onKeyEvent("f");
+    m.onKeyEvent("f");
+    t.checkExpect(m.playback.step, 4);
+    m.onTick();
+    t.checkExpect(m.playback.traceCursor, 4);
+    m.onKeyEvent("s");
+    m.onTick();
+    t.checkExpect(m.playback.traceCursor, 6);
+    t.checkExpect(m.colors[m.solver.trace[5]], Color.LIGHT_GRAY);
+    t.checkExpect(m.colors[m.solver.trace[6]].equals(Color.LIGHT_GRAY), false);
+    m.onKeyEvent("k");
+    t.checkExpect(m.playback.isDone(), true);
+    t.checkExpect(m.colors[59], Maze.PATH_COLOR);
+    t.checkExpect(m.renderer.painted[59], Maze.PATH_COLOR);
+    
+    m.onKeyEvent("d");
+    m.onKeyEvent("v");
+    t.checkExpect(m.playback.budgetNanos, Maze.FRAME_BUDGET_NANOS);
+    m.onTick();
+    t.checkExpect(m.playback.isDone(), true);
+    m.onKeyEvent("v");
+    t.checkExpect(m.playback.budgetNanos, 0L);
+    
+    Playback p = new Playback(Color.RED, Color.BLUE);
+    ArrayList<Integer> painted = new ArrayList<Integer>();
+    CellPainter record = (cell, color) -> painted.add(color == Color.RED ? cell : -cell);
+    p.load(new int[] {1, 2, 3, 9}, 3, new int[] {1, 3}, 2);
+    p.step = 2;
+    t.checkExpect(p.tick(record), 2);
+    t.checkExpect(p.tick(record), 2);
+    t.checkExpect(p.tick(record), 1);
+    t.checkExpect(p.tick(record), 0);
+    t.checkExpect(painted, new ArrayList<Integer>(Arrays.asList(1, 2, 3, -1, -3)));
+    p.slower();
+    p.slower();
+    t.checkExpect(p.step, 1);
+  }
+
+  //test the wall queries of MazeGrid
+  void testGridWalls(Tester t) {
+    MazeGrid g = new MazeGrid(2, 2);
+    g.open(g.edgeId(0, 1));
+    g.open(g.edgeId(1, 3));
+    t.checkExpect(g.wallCount(), 2);
+    t.checkExpect(g.isWall(g.edgeId(0, 2)), true);
+    t.checkExpect(g.isWall(g.edgeId(0, 1)), false);
+    t.checkExpect(g.isWall(2), false);
+    PrimitiveIterator.OfInt it = g.walls();
+    t.checkExpect(it.nextInt(), g.edgeId(0, 2));
+    t.checkExpect(it.nextInt(), g.edgeId(2, 3));
+    t.checkExpect(it.hasNext(), false);
+  }
+
+  //test the world keeps no Vertex or Edge objects until they are read: the
+  //lists of them are views built from the grid when read, and dropped again
+  //when the maze is generated again
+  void testNoObjectLists(Tester t) {
+    Maze m = new Maze(10, 6, 31);
+    boolean lazy = true;
+    for (java.lang.reflect.Field f : Maze.class.getDeclaredFields()) {
+      Class<?> type = f.getType();
+      if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+        try {
+          Object value = f.get(m);
+          lazy = lazy && (value instanceof RepView
+              || value instanceof LazyList && !((LazyList<?>) value).built);
+        }
+        catch (IllegalAccessException e) {
+          lazy = false;
+        }
+      }
+      lazy = lazy && type != Vertex[].class && type != Edge[].class;
+    }
+    t.checkExpect(lazy, true);
+    ArrayList<Edge> walls = m.walls();
+    t.checkExpect(walls.size(), m.grid.wallCount());
+    t.checkExpect(m.walls() != walls, true);
+    t.checkExpect(m.walls().get(0).equals(walls.get(0)), true);
+    t.checkExpect(walls.get(0).equals(m.edgeView(m.grid.walls().nextInt(),
+        m.vertexRows(), 0)), true);
+    t.checkExpect(m.vertices.built, false);
+    t.checkExpect(m.vert.size(), 60);
+    t.checkExpect(m.vertices.built, true);
+    t.checkExpect(m.edges.built, false);
+    t.checkExpect(m.maze.built, false);
+    t.checkExpect(m.maze.size(), m.grid.wallCount());
+    t.checkExpect(m.maze.get(0), walls.get(0));
+    m.paint(0, Color.RED);
+    t.checkExpect(m.vertices.get(0).get(0).color, Color.RED);
+    m.regenerate();
+    t.checkExpect(m.vertices.built, false);
+    t.checkExpect(m.vert.built, false);
+    t.checkExpect(m.maze.built, false);
+    m.searchBFS(m.start, m.target);
+    t.checkExpect(m.solver.pathLength > 0, true);
+    t.checkExpect(m.connected(m.start, m.target), true);
+    m.renderer = null;
+    m.makeScene();
+    t.checkExpect(m.renderer.painted[0], new Color(128, 206, 225));
+  }
+
+  //test method walls
+  void testWalls(Tester t) {
+    t.checkExpect(this.world1.walls().size(), this.world1.grid.wallCount());
+    for (Edge e : this.world1.walls()) {
+      t.checkExpect(this.world1.isPassage(e), false);
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+// to score mazes for difficulty: the cell counts are computed over bands of
+// rows, in parallel for large mazes, and the solution length and diameter by
+// breadth first searches of a BatchSolver. main() scores every maze of a
+// file written by MazeIO, one line of JSON per maze
+class MazeAnalytics {
+
+  // the number of rows of one band
+  static final int BAND_ROWS = 64;
+
+  // the smallest maze whose bands are counted in parallel
+  static final int PARALLEL_CELLS = 1 << 16;
+
+  // the number of mazes of a file scored at once
+  static final int BATCH = 64;
+
+  // the statistics of the given maze
+  static MazeStats analyze(MazeView maze, long seed) {
+    int bands = (maze.height() + BAND_ROWS - 1) / BAND_ROWS;
+    IntStream ids = IntStream.range(0, bands);
+    if (maze.cells() >= PARALLEL_CELLS) {
+      ids = ids.parallel();
+    }
+    MazeStats stats = ids.mapToObj(b -> band(maze, b * BAND_ROWS,
+        Math.min(maze.height(), (b + 1) * BAND_ROWS)))
+        .collect(MazeStats::new, MazeStats::add, MazeStats::add);
+    stats.seed = seed;
+
+    BatchSolver solver = new BatchSolver(maze);
+    int[] d = solver.distances(0);
+    stats.solution = d[d.length - 1];
+    int far = farthest(d);
+    solver.distances(far, d);
+    stats.diameter = d[farthest(d)];
+    return stats;
+  }
+
+  // the cell with the largest distance in the given field
+  static int farthest(int[] distances) {
+    int far = 0;
+    for (int cell = 1; cell < distances.length; cell++) {
+      if (distances[cell] > distances[far]) {
+        far = cell;
+      }
+    }
+    return far;
+  }
+
+  // the local counts of the rows in [from, to); every straight run is
+  // counted by the band holding its west or north end
+  static MazeStats band(MazeView maze, int from, int to) {
+    MazeStats stats = new MazeStats();
+    int w = maze.width();
+    for (int cell = from * w; cell < to * w; cell++) {
+      boolean east = maze.hasEast(cell);
+      boolean south = maze.hasSouth(cell);
+      boolean west = maze.hasWest(cell);
+      boolean north = maze.hasNorth(cell);
+      int degree = (east ? 1 : 0) + (south ? 1 : 0) + (west ? 1 : 0) + (north ? 1 : 0);
+      stats.cells++;
+      stats.degrees[degree]++;
+      if (east) {
+        stats.passages++;
+      }
+      if (south) {
+        stats.passages++;
+      }
+      if (degree == 2) {
+        if (east && west || north && south) {
+          stats.straight++;
+        }
+        else {
+          stats.turns++;
+        }
+      }
+      if (east && !west) {
+        int run = 0;
+        for (int c = cell; maze.hasEast(c); c++) {
+          run++;
+        }
+        stats.horizontalRuns++;
+        stats.longestRun = Math.max(stats.longestRun, run);
+      }
+      if (south && !north) {
+        int run = 0;
+        for (int c = cell; maze.hasSouth(c); c += w) {
+          run++;
+        }
+        stats.verticalRuns++;
+        stats.longestRun = Math.max(stats.longestRun, run);
+      }
+    }
+    return stats;
+  }
+
+  // scores every maze read from the given reader, a batch of mazes at a
+  // time in parallel, and writes one line of JSON per maze in file order;
+  // produces the number of mazes scored
+  static long run(MazeReader reader, Appendable out) throws IOException {
+    List<MazeGrid> grids = new ArrayList<MazeGrid>(BATCH);
+    long[] seeds = new long[BATCH];
+    long count = 0;
+    boolean more = true;
+    while (more) {
+      MazeGrid grid = reader.next();
+      more = grid != null;
+      if (more) {
+        seeds[grids.size()] = reader.seed;
+        grids.add(grid);
+      }
+      if (grids.size() == BATCH || !more && !grids.isEmpty()) {
+        List<String> lines = IntStream.range(0, grids.size()).parallel()
+            .mapToObj(i -> analyze(grids.get(i), seeds[i]).toJson())
+            .collect(Collectors.toList());
+        for (String line : lines) {
+          out.append(line).append('\n');
+        }
+        count += grids.size();
+        grids.clear();
+      }
+    }
+    return count;
+  }
+
+  // usage: MazeAnalytics file
+  public static void main(String[] args) throws IOException {
+    if (args.length != 1) {
+      System.err.println("usage: MazeAnalytics file");
+      System.exit(2);
+    }
+    try (MazeReader reader = MazeReader.open(Paths.get(args[0]))) {
+      Writer out = new BufferedWriter(new OutputStreamWriter(System.out));
+      long count = run(reader, out);
+      out.flush();
+      System.err.println(count + " mazes scored");
+    }
+  }
+}
@@ -0,0 +1,99 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// to generate mazes without the GUI and stream them to a file: one thread
+// generates while the calling thread writes, with a bounded queue between
+// them. A failure of the generating thread is thrown by run
+class MazeBatch {
+
+  // the number of generated mazes that may wait for the writer
+  static final int QUEUE_SIZE = 64;
+
+  // the weight bound used for every edge, as in Maze
+  static final int WEIGHT_BOUND = 100;
+
+  // marks the end of the generated mazes
+  static final GeneratedMaze DONE = new GeneratedMaze(0, null);
+
+  // the number of columns of every maze
+  final int width;
+
+  // the number of rows of every maze
+  final int height;
+
+  // the seed of the first maze, maze i uses seed + i
+  final long seed;
+
+  // the number of mazes to generate
+  final int count;
+
+  MazeBatch(int width, int height, long seed, int count) {
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+    this.count = count;
+  }
+
+  // produces the maze with the given seed
+  MazeGrid generate(long mazeSeed) {
+    return KruskalBuilder.generate(this.width, this.height, mazeSeed, WEIGHT_BOUND);
+  }
+
+  // generates every maze of this batch and writes it to the given writer,
+  // produces the number of mazes written
+  int run(MazeWriter writer) throws IOException, InterruptedException {
+    BlockingQueue<GeneratedMaze> queue = new ArrayBlockingQueue<GeneratedMaze>(QUEUE_SIZE);
+    Throwable[] failure = new Throwable[1];
+    Thread producer = new Thread(() -> {
+      try {
+        try {
+          for (int i = 0; i < this.count; i++) {
+            queue.put(new GeneratedMaze(this.seed + i, this.generate(this.seed + i)));
+          }
+        }
+        catch (RuntimeException | Error e) {
+          failure[0] = e;
+        }
+        finally {
+          queue.put(DONE);
+        }
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "maze-generator");
+    producer.setDaemon(true);
+    producer.start();
+
+    try {
+      for (GeneratedMaze m = queue.take(); m != DONE; m = queue.take()) {
+        writer.write(m.grid, m.seed);
+      }
+    }
+    finally {
+      producer.interrupt();
+    }
+    if (failure[0] instanceof Error) {
+      throw (Error) failure[0];
+    }
+    if (failure[0] != null) {
+      throw (RuntimeException) failure[0];
+    }
+    return writer.written;
+  }
+
+  // usage: MazeBatch width height seed count file
+  public static void main(String[] args) throws Exception {
+    if (args.length != 5) {
+      System.err.println("usage: MazeBatch width height seed count file");
+      System.exit(2);
+    }
+    MazeBatch batch = new MazeBatch(Integer.parseInt(args[0]), Integer.parseInt(args[1]),
+        Long.parseLong(args[2]), Integer.parseInt(args[3]));
+    try (MazeWriter writer = MazeWriter.create(Paths.get(args[4]))) {
+      System.out.println(batch.run(writer) + " mazes written to " + args[4]);
+    }
+  }
+}
@@ -0,0 +1,321 @@
+import java.io.*;
+import java.lang.management.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.*;
+
+// to represent one benchmarked operation: setup runs before every call of
+// the operation and is neither timed nor counted in the allocation rate, and
+// the operation produces a number derived from its result, which the harness
+// consumes so the work cannot be dropped as dead code
+class BenchCase {
+  String name;
+  String size;
+  Runnable setup;
+  LongSupplier op;
+
+  BenchCase(String name, String size, Runnable setup, LongSupplier op) {
+    this.name = name;
+    this.size = size;
+    this.setup = setup;
+    this.op = op;
+  }
+}
+
+// to represent the measurements of one BenchCase
+class BenchResult {
+  String name;
+  String size;
+  long ops;
+  long nanos;
+  long bytes;
+
+  BenchResult(String name, String size, long ops, long nanos, long bytes) {
+    this.name = name;
+    this.size = size;
+    this.ops = ops;
+    this.nanos = nanos;
+    this.bytes = bytes;
+  }
+
+  // operations per second
+  double throughput() {
+    return this.ops * 1e9 / this.nanos;
+  }
+
+  // milliseconds per operation
+  double averageMillis() {
+    return this.nanos / 1e6 / this.ops;
+  }
+
+  // bytes allocated per operation
+  double bytesPerOp() {
+    return (double) this.bytes / this.ops;
+  }
+
+  // megabytes allocated per second of operation time
+  double allocRate() {
+    return this.bytes * 1e9 / this.nanos / (1 << 20);
+  }
+
+  // the key of this result in a baseline file
+  String key() {
+    return this.name + "@" + this.size;
+  }
+}
+
+// to benchmark the generation, solving and rendering stages, both through the
+// Maze world (build, regenerate, walls, searchBFS, searchDFS, makeScene) and
+// through the primitive grid engine for sizes too large to draw. Every case
+// is warmed up, then timed over several iterations; the report gives
+// throughput, average time and the allocation rate measured per thread, and
+// can be compared with an earlier report. The result of every operation is
+// folded into the sink, which is printed at the end, so the JIT cannot drop
+// an operation whose result is otherwise unused. JMH cannot generate harnesses for
+// classes in the default package, which is where this project lives, so the
+// harness is written out here. Like the world itself it needs the javalib
+// and tester jars of the course on the class path:
+//
+//   javac -cp javalib.jar:tester.jar *.java
+//   java -cp .:javalib.jar:tester.jar MazeBenchmark --quick
+//
+// usage: MazeBenchmark [--quick] [--out report.tsv] [--baseline old.tsv]
+class MazeBenchmark {
+
+  // the seed of every benchmarked maze
+  static final long SEED = 42;
+
+  // the sizes benchmarked through the Maze world
+  static final int[][] WORLD_SIZES = {{20, 15}, {100, 75}, {500, 300}};
+
+  // the sizes benchmarked through the grid engine
+  static final int[][] GRID_SIZES = {{20, 15}, {500, 300}, {1024, 1024}, {4096, 4096}};
+
+  // the thread allocation counters of the JVM
+  static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  // how long every warmup and measurement iteration runs at least
+  long iterationNanos;
+
+  // the number of warmup iterations
+  int warmups;
+
+  // the number of measured iterations
+  int iterations;
+
+  // the results of every operation folded together, printed at the end
+  long sink;
+
+  MazeBenchmark(long iterationNanos, int warmups, int iterations) {
+    this.iterationNanos = iterationNanos;
+    this.warmups = warmups;
+    this.iterations = iterations;
+  }
+
+  // the benchmark cases of the Maze world at the given size
+  static List<BenchCase> worldCases(int w, int h) {
+    String size = w + "x" + h;
+    Maze m = new Maze(w, h, SEED);
+    List<BenchCase> cases = new ArrayList<BenchCase>();
+
+    cases.add(new BenchCase("world.build", size,
+        () -> { },
+        () -> {
+          m.build();
+          return m.grid.passages[0];
+        }));
+    cases.add(new BenchCase("world.regenerate", size,
+        () -> { },
+        () -> {
+          m.regenerate();
+          return m.grid.passages[0];
+        }));
+    cases.add(new BenchCase("world.initEdges", size,
+        () -> { },
+        () -> {
+          m.initEdges();
+          return m.edges.size();
+        }));
+    cases.add(new BenchCase("world.initWorkList", size,
+        () -> { },
+        () -> {
+          m.initWorkList();
+          return m.workList.size();
+        }));
+    cases.add(new BenchCase("world.initMaze", size,
+        () -> { },
+        () -> {
+          m.initMaze();
+          return m.maze.size();
+        }));
+    cases.add(new BenchCase("world.walls", size,
+        () -> { },
+        () -> m.walls().size()));
+    cases.add(new BenchCase("world.searchBFS", size,
+        () -> { },
+        () -> {
+          m.searchBFS(m.start, m.target);
+          return m.solver.pathLength;
+        }));
+    cases.add(new BenchCase("world.searchDFS", size,
+        () -> { },
+        () -> {
+          m.searchDFS(m.start, m.target);
+          return m.solver.pathLength;
+        }));
+    cases.add(new BenchCase("world.makeScene.full", size,
+        () -> m.renderer = null,
+        () -> System.identityHashCode(m.makeScene())));
+    cases.add(new BenchCase("world.makeScene.frame", size,
+        () -> m.paint(m.colors.length / 2, m.colors[m.colors.length / 2] == Maze.PATH_COLOR
+            ? java.awt.Color.LIGHT_GRAY : Maze.PATH_COLOR),
+        () -> System.identityHashCode(m.makeScene())));
+    return cases;
+  }
+
+  // the benchmark cases of the grid engine at the given size
+  static List<BenchCase> gridCases(int w, int h) {
+    String size = w + "x" + h;
+    MazeGrid grid = new MazeGrid(w, h);
+    KruskalBuilder builder = new KruskalBuilder(grid);
+    int[] weights = new int[grid.edgeIds()];
+    EdgeWeights.fill(grid, SEED, 100, weights);
+    int[] shuffled = builder.edges.clone();
+    List<BenchCase> cases = new ArrayList<BenchCase>();
+
+    cases.add(new BenchCase("grid.weights", size,
+        () -> { },
+        () -> {
+          EdgeWeights.fill(grid, SEED, 100, weights);
+          return weights[0];
+        }));
+    cases.add(new BenchCase("grid.sort", size,
+        () -> System.arraycopy(shuffled, 0, builder.edges, 0, shuffled.length),
+        () -> {
+          builder.sort(weights);
+          return builder.edges[0];
+        }));
+    cases.add(new BenchCase("grid.build", size,
+        () -> {
+          grid.clear();
+          builder.sets.reset();
+        },
+        () -> builder.build()));
+    GridSolver solver = new GridSolver(grid);
+    cases.add(new BenchCase("grid.bfs", size,
+        () -> { },
+        () -> solver.bfs(0, grid.cells() - 1) ? solver.pathLength : -1));
+    cases.add(new BenchCase("grid.dfs", size,
+        () -> { },
+        () -> solver.dfs(0, grid.cells() - 1) ? solver.pathLength : -1));
+    return cases;
+  }
+
+  // warms the given case up, then measures it
+  BenchResult measure(BenchCase c) {
+    for (int i = 0; i < this.warmups; i++) {
+      this.iteration(c);
+    }
+    long ops = 0;
+    long nanos = 0;
+    long bytes = 0;
+    for (int i = 0; i < this.iterations; i++) {
+      long[] r = this.iteration(c);
+      ops += r[0];
+      nanos += r[1];
+      bytes += r[2];
+    }
+    return new BenchResult(c.name, c.size, ops, nanos, bytes);
+  }
+
+  // runs the given case until the iteration time is used up, produces the
+  // number of operations, their total time and the bytes they allocated
+  long[] iteration(BenchCase c) {
+    long thread = Thread.currentThread().getId();
+    long ops = 0;
+    long nanos = 0;
+    long bytes = 0;
+    while (nanos < this.iterationNanos) {
+      c.setup.run();
+      long before = THREADS.getThreadAllocatedBytes(thread);
+      long start = System.nanoTime();
+      long result = c.op.getAsLong();
+      nanos += System.nanoTime() - start;
+      this.sink = this.sink * 31 + result;
+      bytes += THREADS.getThreadAllocatedBytes(thread) - before;
+      ops++;
+    }
+    return new long[] {ops, nanos, bytes};
+  }
+
+  // measures the given cases, printing and adding a report line for each
+  void run(List<BenchCase> cases, Map<String, Double> baseline, List<String> report) {
+    for (BenchCase c : cases) {
+      String line = format(this.measure(c), baseline);
+      report.add(line);
+      System.out.println(line);
+    }
+  }
+
+  // reads the average times of an earlier report, keyed by BenchResult.key
+  static Map<String, Double> readBaseline(Path file) throws IOException {
+    Map<String, Double> baseline = new HashMap<String, Double>();
+    for (String line : Files.readAllLines(file)) {
+      String[] cols = line.split("\t");
+      if (cols.length >= 4 && !cols[0].equals("benchmark")) {
+        baseline.put(cols[0] + "@" + cols[1], Double.parseDouble(cols[3]));
+      }
+    }
+    return baseline;
+  }
+
+  // formats the given result as a report line, with the change of its
+  // average time against the baseline when there is one
+  static String format(BenchResult r, Map<String, Double> baseline) {
+    Double before = baseline.get(r.key());
+    String change = before == null ? "" 
+        : String.format(Locale.ROOT, "\t%+.1f%%", 100 * (r.averageMillis() / before - 1));
+    return String.format(Locale.ROOT, "%s\t%s\t%.3f\t%.4f\t%.0f\t%.1f%s", r.name, r.size,
+        r.throughput(), r.averageMillis(), r.bytesPerOp(), r.allocRate(), change);
+  }
+
+  public static void main(String[] args) throws IOException {
+    boolean quick = false;
+    Path out = null;
+    Map<String, Double> baseline = new HashMap<String, Double>();
+    for (int i = 0; i < args.length; i++) {
+      if (args[i].equals("--quick")) {
+        quick = true;
+      }
+      else if (args[i].equals("--out")) {
+        out = Paths.get(args[++i]);
+      }
+      else if (args[i].equals("--baseline")) {
+        baseline = readBaseline(Paths.get(args[++i]));
+      }
+      else {
+        System.err.println("usage: MazeBenchmark [--quick] [--out report.tsv] "
+            + "[--baseline old.tsv]");
+        System.exit(2);
+      }
+    }
+    MazeBenchmark bench = quick ? new MazeBenchmark(100_000_000L, 1, 2)
+        : new MazeBenchmark(1_000_000_000L, 3, 5);
+
+    List<String> report = new ArrayList<String>();
+    report.add("benchmark\tsize\tops/s\tms/op\tB/op\tMB/s"
+        + (baseline.isEmpty() ? "" : "\tvs baseline"));
+    System.out.println(report.get(0));
+    for (int[] size : WORLD_SIZES) {
+      bench.run(worldCases(size[0], size[1]), baseline, report);
+    }
+    for (int[] size : quick ? Arrays.copyOf(GRID_SIZES, 2) : GRID_SIZES) {
+      bench.run(gridCases(size[0], size[1]), baseline, report);
+    }
+    if (out != null) {
+      Files.write(out, report);
+    }
+    System.err.println("sink " + bench.sink);
+  }
+}
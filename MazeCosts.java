@@ -0,0 +1,87 @@
+import java.util.*;
+
+// to represent the costs of moving through a maze: stepping from a cell
+// through a passage into its neighbor costs the passage cost of the edge plus
+// the cell cost of the neighbor. Costs are non-negative ints kept in arrays
+// indexed by cell and by edge id, so nothing is boxed; path costs must fit
+// in an int
+class MazeCosts {
+
+  // the cost of entering every cell
+  final int[] cell;
+
+  // the extra cost of crossing every edge id
+  final int[] passage;
+
+  // the largest cell cost
+  int maxCell;
+
+  // the largest passage cost
+  int maxPassage;
+
+  // whether maxCell and maxPassage have to be computed again
+  boolean stale;
+
+  // unit costs: every cell costs 1 to enter and passages cost nothing extra
+  MazeCosts(int cells) {
+    this.cell = new int[cells];
+    this.passage = new int[2 * cells];
+    Arrays.fill(this.cell, 1);
+    this.maxCell = 1;
+  }
+
+  // random terrain: every cell costs 1 .. bound to enter, drawn from the
+  // given seed the way EdgeWeights draws edge weights
+  static MazeCosts terrain(int cells, long seed, int bound) {
+    MazeCosts costs = new MazeCosts(cells);
+    for (int c = 0; c < cells; c++) {
+      costs.cell[c] = 1 + EdgeWeights.weight(seed, c, bound);
+    }
+    costs.stale = true;
+    return costs;
+  }
+
+  // sets the cost of entering the given cell
+  void setCell(int cell, int cost) {
+    if (cost < 0) {
+      throw new IllegalArgumentException("Costs must not be negative: " + cost);
+    }
+    this.cell[cell] = cost;
+    this.stale = true;
+  }
+
+  // sets the extra cost of crossing the given edge
+  void setPassage(int edge, int cost) {
+    if (cost < 0) {
+      throw new IllegalArgumentException("Costs must not be negative: " + cost);
+    }
+    this.passage[edge] = cost;
+    this.stale = true;
+  }
+
+  // the cost of stepping through the given edge into the given cell
+  int step(int edge, int to) {
+    return this.passage[edge] + this.cell[to];
+  }
+
+  // an upper bound on the cost of a single step
+  int maxStep() {
+    if (this.stale) {
+      this.maxCell = 0;
+      for (int c : this.cell) {
+        this.maxCell = Math.max(this.maxCell, c);
+      }
+      this.maxPassage = 0;
+      for (int p : this.passage) {
+        this.maxPassage = Math.max(this.maxPassage, p);
+      }
+      this.stale = false;
+    }
+    return this.maxCell + this.maxPassage;
+  }
+
+  // determines if every step costs 0 or 1, so 0-1 BFS finds cheapest paths
+  boolean isBinary() {
+    return this.maxStep() <= 1;
+  }
+}
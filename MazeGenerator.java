@@ -0,0 +1,15 @@
+// to represent an algorithm that generates perfect mazes: generating a new
+// grid works from fresh buffers and can run on any number of threads at once,
+// generating into a grid reuses the buffers of the generator and must not
+// run on two threads at once
+interface MazeGenerator {
+
+  // produces the perfect maze of the given size for the given seed; the same
+  // size and seed always produce the same maze
+  MazeGrid generate(int width, int height, long seed);
+
+  // replaces the passages of the given grid with the perfect maze of its size
+  // for the given seed, the one generate(width, height, seed) produces; the
+  // working buffers are kept for the next grid of the same size
+  void generate(MazeGrid into, long seed);
+}
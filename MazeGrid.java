@@ -0,0 +1,312 @@
+import java.util.*;
+
+// to represent a maze as a compact grid graph: the cell at (x, y) has the index
+// y * width + x, and every cell owns two candidate edges, the one to its east
+// neighbor (id 2 * cell) and the one to its south neighbor (id 2 * cell + 1).
+// A set bit in passages means the edge with that id is open, so a whole maze
+// costs two bits per cell
+class MazeGrid implements MazeView {
+
+  // offset of the east edge of a cell
+  static final int EAST = 0;
+
+  // offset of the south edge of a cell
+  static final int SOUTH = 1;
+
+  // the number of columns
+  final int width;
+
+  // the number of rows
+  final int height;
+
+  // one bit per edge id, set when the edge is a passage
+  final long[] passages;
+
+  MazeGrid(int width, int height) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Maze dimensions must be positive: "
+          + width + "x" + height);
+    }
+    if ((long) width * height > Integer.MAX_VALUE / 2) {
+      throw new IllegalArgumentException("Maze is too large for int edge ids: "
+          + width + "x" + height);
+    }
+    this.width = width;
+    this.height = height;
+    this.passages = new long[(2 * width * height + 63) >>> 6];
+  }
+
+  // the number of columns
+  public int width() {
+    return this.width;
+  }
+
+  // the number of rows
+  public int height() {
+    return this.height;
+  }
+
+  // the number of cells in this grid
+  public int cells() {
+    return this.width * this.height;
+  }
+
+  // the size of the edge id space (including ids of edges that leave the grid)
+  int edgeIds() {
+    return 2 * this.width * this.height;
+  }
+
+  // the index of the cell at the given coordinates
+  int index(int x, int y) {
+    return y * this.width + x;
+  }
+
+  // the column of the given cell
+  int x(int cell) {
+    return cell % this.width;
+  }
+
+  // the row of the given cell
+  int y(int cell) {
+    return cell / this.width;
+  }
+
+  // the id of the edge between the two given cells, or -1 if they are not adjacent
+  int edgeId(int a, int b) {
+    return edgeId(this.width, this.height, a, b);
+  }
+
+  // the id of the edge between the two given cells of a grid of the given
+  // size, -1 if they are not neighbors
+  static int edgeId(int width, int height, int a, int b) {
+    int lo = Math.min(a, b);
+    int hi = Math.max(a, b);
+    if (hi - lo == 1 && lo % width != width - 1) {
+      return 2 * lo + EAST;
+    }
+    else if (hi - lo == width && hi < width * height) {
+      return 2 * lo + SOUTH;
+    }
+    else {
+      return -1;
+    }
+  }
+
+  // determines if the given edge id connects two cells of this grid
+  boolean isCandidate(int edge) {
+    int cell = edge >>> 1;
+    if ((edge & 1) == EAST) {
+      return this.x(cell) != this.width - 1;
+    }
+    else {
+      return this.y(cell) != this.height - 1;
+    }
+  }
+
+  // the cell the given edge starts at (its west or north end)
+  int edgeFrom(int edge) {
+    return edge >>> 1;
+  }
+
+  // the cell the given edge ends at (its east or south end)
+  int edgeTo(int edge) {
+    return (edge & 1) == EAST ? (edge >>> 1) + 1 : (edge >>> 1) + this.width;
+  }
+
+  // turns the given edge into a passage
+  void open(int edge) {
+    this.passages[edge >>> 6] |= 1L << edge;
+  }
+
+  // turns the given edge back into a wall
+  void close(int edge) {
+    this.passages[edge >>> 6] &= ~(1L << edge);
+  }
+
+  // determines if the given edge is a passage
+  boolean isOpen(int edge) {
+    return (this.passages[edge >>> 6] & (1L << edge)) != 0;
+  }
+
+  // turns every edge into a wall
+  void clear() {
+    Arrays.fill(this.passages, 0L);
+  }
+
+  // determines if the given cell has a passage to its east neighbor
+  public boolean hasEast(int cell) {
+    return this.isOpen(2 * cell + EAST);
+  }
+
+  // determines if the given cell has a passage to its south neighbor
+  public boolean hasSouth(int cell) {
+    return this.isOpen(2 * cell + SOUTH);
+  }
+
+  // determines if the given cell has a passage to its west neighbor
+  public boolean hasWest(int cell) {
+    return this.x(cell) != 0 && this.hasEast(cell - 1);
+  }
+
+  // determines if the given cell has a passage to its north neighbor
+  public boolean hasNorth(int cell) {
+    return cell >= this.width && this.hasSouth(cell - this.width);
+  }
+
+  // determines if there is a passage between the two given cells
+  boolean hasPassage(int a, int b) {
+    int edge = this.edgeId(a, b);
+    return edge >= 0 && this.isOpen(edge);
+  }
+
+  // writes the cells reachable in one step from the given cell into out
+  // (east, south, west, north order) and produces how many were written
+  public int neighbors(int cell, int[] out) {
+    int n = 0;
+    if (this.hasEast(cell)) {
+      out[n++] = cell + 1;
+    }
+    if (this.hasSouth(cell)) {
+      out[n++] = cell + this.width;
+    }
+    if (this.hasWest(cell)) {
+      out[n++] = cell - 1;
+    }
+    if (this.hasNorth(cell)) {
+      out[n++] = cell - this.width;
+    }
+    return n;
+  }
+
+  // the number of passages leaving the given cell
+  public int degree(int cell) {
+    int n = 0;
+    if (this.hasEast(cell)) {
+      n++;
+    }
+    if (this.hasSouth(cell)) {
+      n++;
+    }
+    if (this.hasWest(cell)) {
+      n++;
+    }
+    if (this.hasNorth(cell)) {
+      n++;
+    }
+    return n;
+  }
+
+  // the lowest set bit of passages that is not the id of a candidate edge:
+  // the east edge of a cell in the last column, the south edge of a cell in
+  // the last row, or a bit past the last edge id; -1 when every set bit is
+  // a candidate
+  int strayEdge() {
+    int stray = -1;
+    for (int y = 0; y < this.height && stray < 0; y++) {
+      int edge = 2 * this.index(this.width - 1, y) + EAST;
+      if (this.isOpen(edge)) {
+        stray = edge;
+      }
+    }
+    for (int x = 0; x < this.width; x++) {
+      int edge = 2 * this.index(x, this.height - 1) + SOUTH;
+      if (this.isOpen(edge)) {
+        return stray < 0 ? edge : Math.min(stray, edge);
+      }
+    }
+    if (stray < 0 && (this.edgeIds() & 63) != 0) {
+      long rest = this.passages[this.passages.length - 1] & (-1L << this.edgeIds());
+      if (rest != 0) {
+        stray = 64 * (this.passages.length - 1) + Long.numberOfTrailingZeros(rest);
+      }
+    }
+    return stray;
+  }
+
+  // the number of passages in this grid
+  int passageCount() {
+    int n = 0;
+    for (long word : this.passages) {
+      n += Long.bitCount(word);
+    }
+    return n;
+  }
+
+  // determines if the given edge id is a wall between two cells of this grid
+  boolean isWall(int edge) {
+    return this.isCandidate(edge) && !this.isOpen(edge);
+  }
+
+  // the number of walls between cells of this grid
+  int wallCount() {
+    return 2 * this.cells() - this.width - this.height - this.passageCount();
+  }
+
+  // produces the ids of the walls between cells of this grid, in increasing
+  // order, read straight from the passage bits as the iterator advances
+  PrimitiveIterator.OfInt walls() {
+    return new PrimitiveIterator.OfInt() {
+      int next = this.find(0);
+
+      // the first wall id from the given one on, or edgeIds() if there is none
+      int find(int from) {
+        while (from < MazeGrid.this.edgeIds() && !MazeGrid.this.isWall(from)) {
+          from++;
+        }
+        return from;
+      }
+
+      public boolean hasNext() {
+        return this.next < MazeGrid.this.edgeIds();
+      }
+
+      public int nextInt() {
+        if (!this.hasNext()) {
+          throw new NoSuchElementException();
+        }
+        int wall = this.next;
+        this.next = this.find(wall + 1);
+        return wall;
+      }
+    };
+  }
+
+  // braids this maze: every dead end is picked with the given percent chance,
+  // drawn from the given seed, and gets a wall to a neighbor opened, a
+  // neighboring dead end first; produces the number of passages opened.
+  // Braiding adds loops, so the maze is no longer a tree afterwards
+  int braid(long seed, int percent) {
+    int opened = 0;
+    int[] walls = new int[4];
+    int[] around = new int[4];
+    for (int cell = 0; cell < this.cells(); cell++) {
+      if (this.degree(cell) != 1 || EdgeWeights.weight(seed, cell, 100) >= percent) {
+        continue;
+      }
+      int n = 0;
+      int pick = -1;
+      int x = this.x(cell);
+      int y = this.y(cell);
+      around[0] = x + 1 < this.width ? cell + 1 : -1;
+      around[1] = y + 1 < this.height ? cell + this.width : -1;
+      around[2] = x > 0 ? cell - 1 : -1;
+      around[3] = y > 0 ? cell - this.width : -1;
+      for (int to : around) {
+        if (to >= 0 && !this.hasPassage(cell, to)) {
+          walls[n++] = to;
+          if (pick < 0 && this.degree(to) == 1) {
+            pick = to;
+          }
+        }
+      }
+      if (n > 0) {
+        if (pick < 0) {
+          pick = walls[EdgeWeights.weight(~seed, cell, n)];
+        }
+        this.open(this.edgeId(cell, pick));
+        opened++;
+      }
+    }
+    return opened;
+  }
+}
@@ -0,0 +1,25 @@
+// to describe the binary maze format: every maze is a little-endian record of
+//   magic "MAZE" | version (short) | flags (short) | width (int) | height (int)
+//   | seed (long) | passage bits
+// where the passage bits are the MazeGrid bitset, two bits per cell (east,
+// then south), packed into ceil(2 * width * height / 8) bytes. Records can be
+// concatenated, so one file holds any number of mazes
+class MazeIO {
+
+  // the first four bytes of every record, "MAZE" read as a little-endian int
+  static final int MAGIC = 0x455A414D;
+
+  // the current format version
+  static final short VERSION = 1;
+
+  // the size of a record header in bytes
+  static final int HEADER_BYTES = 24;
+
+  // the size of the buffers between the mazes and the channels
+  static final int BUFFER_BYTES = 1 << 16;
+
+  // the number of bytes of passage bits in a record for the given grid size
+  static long dataBytes(int width, int height) {
+    return (2L * width * height + 7) / 8;
+  }
+}
@@ -0,0 +1,184 @@
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// to generate, write and optionally check a maze one band of rows at a time:
+// Eller's algorithm fills bands on one thread, the calling thread packs them
+// into the binary maze format, and a checker thread verifies them, with
+// bounded queues between the stages and a fixed pool of bands going around,
+// so memory depends on the width and the band size but not on the height.
+// The first failure of any stage stops the others and is thrown by run
+class MazePipeline {
+
+  // the number of columns
+  final int width;
+
+  // the number of rows
+  final int height;
+
+  // the seed of the maze
+  final long seed;
+
+  // the number of rows per band
+  final int bandRows;
+
+  // the number of bands going around the pipeline
+  final int bands;
+
+  MazePipeline(int width, int height, long seed, int bandRows, int bands) {
+    if (bandRows <= 0 || bands < 2) {
+      throw new IllegalArgumentException("Need at least 2 bands of at least 1 row");
+    }
+    this.width = width;
+    this.height = height;
+    this.seed = seed;
+    this.bandRows = bandRows;
+    this.bands = bands;
+  }
+
+  // produces the rows of the maze, top row first, to the given sink
+  void stream(RowSink sink) {
+    new EllerGenerator().stream(this.width, this.height, this.seed, sink);
+  }
+
+  // the checker the rows of the maze are verified with
+  StreamingChecker checker() {
+    return new StreamingChecker(this.width);
+  }
+
+  // streams the maze to the given channel, checking it too when check is true
+  PipelineReport run(WritableByteChannel out, boolean check)
+      throws IOException, InterruptedException {
+    BlockingQueue<RowBand> free = new ArrayBlockingQueue<RowBand>(this.bands);
+    BlockingQueue<RowBand> toWrite = new ArrayBlockingQueue<RowBand>(this.bands + 1);
+    BlockingQueue<RowBand> toCheck = new ArrayBlockingQueue<RowBand>(this.bands + 1);
+    for (int i = 0; i < this.bands; i++) {
+      free.add(new RowBand(this.width, this.bandRows));
+    }
+    RowBand done = new RowBand(1, 1);
+    AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+
+    // the generator always ends its bands with done, so the writer never
+    // waits for a band that will not come; there is room for it, since at
+    // most every band is queued before it
+    Thread generator = new Thread(() -> {
+      try {
+        RowBand[] current = {free.take()};
+        current[0].firstRow = 0;
+        current[0].rows = 0;
+        this.stream((y, east, south) -> {
+          RowBand band = current[0];
+          if (band.rows == band.capacity()) {
+            try {
+              toWrite.put(band);
+              band = free.take();
+            }
+            catch (InterruptedException e) {
+              throw new CancellationException("Pipeline interrupted");
+            }
+            band.firstRow = y;
+            band.rows = 0;
+            current[0] = band;
+          }
+          System.arraycopy(east, 0, band.east, band.rows * band.words, band.words);
+          System.arraycopy(south, 0, band.south, band.rows * band.words, band.words);
+          band.rows++;
+        });
+        toWrite.put(current[0]);
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      catch (RuntimeException | Error e) {
+        failure.compareAndSet(null, e);
+      }
+      finally {
+        toWrite.offer(done);
+      }
+    }, "maze-pipeline-generator");
+
+    // the verifier returns every band to the generator even once a check
+    // failed, so the generator never waits for a band that will not come
+    StreamingChecker checker = check ? this.checker() : null;
+    Thread verifier = new Thread(() -> {
+      try {
+        for (RowBand band = toCheck.take(); band != done; band = toCheck.take()) {
+          try {
+            for (int r = 0; r < band.rows && failure.get() == null; r++) {
+              checker.row(band.east, band.south, r * band.words,
+                  band.firstRow + r == this.height - 1);
+            }
+          }
+          catch (RuntimeException | Error e) {
+            failure.compareAndSet(null, e);
+          }
+          free.put(band);
+        }
+      }
+      catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }, "maze-pipeline-checker");
+
+    generator.setDaemon(true);
+    verifier.setDaemon(true);
+    generator.start();
+    if (check) {
+      verifier.start();
+    }
+    BandWriter writer = new BandWriter(out, this.width, this.height, this.seed);
+    long rows = 0;
+    try {
+      for (RowBand band = toWrite.take(); band != done; band = toWrite.take()) {
+        if (failure.get() == null) {
+          writer.write(band);
+          rows += band.rows;
+        }
+        (check ? toCheck : free).put(band);
+      }
+      if (check) {
+        toCheck.put(done);
+        verifier.join();
+      }
+      if (failure.get() == null) {
+        writer.finish();
+      }
+    }
+    finally {
+      generator.interrupt();
+      verifier.interrupt();
+    }
+    Throwable cause = failure.get();
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    if (cause != null) {
+      throw (RuntimeException) cause;
+    }
+    return new PipelineReport(rows,
+        MazeIO.HEADER_BYTES + MazeIO.dataBytes(this.width, this.height), checker);
+  }
+
+  // usage: MazePipeline width height seed file [--check]
+  public static void main(String[] args) throws Exception {
+    if (args.length != 4 && args.length != 5) {
+      System.err.println("usage: MazePipeline width height seed file [--check]");
+      System.exit(2);
+    }
+    MazePipeline pipeline = new MazePipeline(Integer.parseInt(args[0]),
+        Integer.parseInt(args[1]), Long.parseLong(args[2]), 64, 4);
+    boolean check = args.length == 5 && args[4].equals("--check");
+    try (FileChannel out = FileChannel.open(Paths.get(args[3]), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      PipelineReport report = pipeline.run(out, check);
+      System.out.println(report.rows + " rows, " + report.bytes + " bytes written to "
+          + args[3]);
+      if (check) {
+        System.out.println("perfect: " + report.checker.perfect()
+            + ", solvable: " + report.checker.solvable);
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+import java.awt.image.*;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.stream.*;
+import javax.imageio.*;
+
+// to draw a maze straight into the int[] pixels of a BufferedImage: every
+// cell owns a block of scaleWidth x scaleHeight pixels holding its color and
+// the walls on its sides, and blocks never overlap, so bands of rows can be
+// painted in parallel without locking. Blocks under 3 pixels are thin: they
+// only draw their east and south walls, which are the west and north walls
+// of the next blocks, and the image gets a 1 pixel border on its left and
+// top for the outer walls. Blocks of 1 pixel have no room for walls and only
+// show the cell colors
+class MazeRaster {
+
+  // the color of walls and wall corners
+  static final int WALL = 0x000000;
+
+  // the number of cell rows painted by one parallel task
+  static final int BAND_ROWS = 64;
+
+  // the maze being drawn
+  final MazeView maze;
+
+  // the width of a cell block in pixels
+  final int scaleWidth;
+
+  // the height of a cell block in pixels
+  final int scaleHeight;
+
+  // the thickness of a wall inside a cell block
+  final int wall = 1;
+
+  // whether blocks are too small for walls on all four sides, so every block
+  // only draws its east and south walls
+  final boolean thin;
+
+  // the width of the outer wall on the left and top of thin blocks, which
+  // shifts every block right and down
+  final int border;
+
+  // the drawn maze
+  final BufferedImage image;
+
+  // the pixels of image, rows first, one RGB int per pixel
+  final int[] pixels;
+
+  MazeRaster(MazeView maze, int scaleWidth, int scaleHeight) {
+    this.maze = maze;
+    this.scaleWidth = Math.max(1, scaleWidth);
+    this.scaleHeight = Math.max(1, scaleHeight);
+    this.thin = Math.min(this.scaleWidth, this.scaleHeight) < 3;
+    this.border = this.thin ? this.wall : 0;
+    long pixels = ((long) maze.width() * this.scaleWidth + this.border)
+        * ((long) maze.height() * this.scaleHeight + this.border);
+    if (pixels > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Image is too large for one pixel buffer: "
+          + maze.width() + "x" + maze.height() + " cells at " + this.scaleWidth + "x"
+          + this.scaleHeight + " pixels each");
+    }
+    this.image = new BufferedImage(this.pixelWidth(), this.pixelHeight(),
+        BufferedImage.TYPE_INT_RGB);
+    this.pixels = ((DataBufferInt) this.image.getRaster().getDataBuffer()).getData();
+  }
+
+  // the largest block size that fits the given number of cells into the
+  // given number of pixels, border included, and at least 1
+  static int scaleFor(int pixels, int cells) {
+    int scale = pixels / cells;
+    return scale >= 3 ? scale : Math.max(1, (pixels - 1) / cells);
+  }
+
+  // the width of the image in pixels
+  int pixelWidth() {
+    return this.maze.width() * this.scaleWidth + this.border;
+  }
+
+  // the height of the image in pixels
+  int pixelHeight() {
+    return this.maze.height() * this.scaleHeight + this.border;
+  }
+
+  // the left pixel column of the block of the given cell
+  int blockLeft(int cell) {
+    return cell % this.maze.width() * this.scaleWidth + this.border;
+  }
+
+  // the top pixel row of the block of the given cell
+  int blockTop(int cell) {
+    return cell / this.maze.width() * this.scaleHeight + this.border;
+  }
+
+  // paints every cell with the RGB color the given function produces for
+  // it, one band of rows per task; a single band is painted on this thread
+  void paintAll(IntUnaryOperator color) {
+    this.fill(0, 0, this.pixelWidth(), this.border, WALL);
+    this.fill(0, 0, this.border, this.pixelHeight(), WALL);
+    int bands = (this.maze.height() + BAND_ROWS - 1) / BAND_ROWS;
+    if (bands == 1) {
+      this.paintRows(0, this.maze.height(), color);
+      return;
+    }
+    IntStream.range(0, bands).parallel().forEach(b -> this.paintRows(b * BAND_ROWS,
+        Math.min(this.maze.height(), (b + 1) * BAND_ROWS), color));
+  }
+
+  // paints every cell of the rows in [from, to)
+  void paintRows(int from, int to, IntUnaryOperator color) {
+    int w = this.maze.width();
+    for (int cell = from * w; cell < to * w; cell++) {
+      this.paint(cell, color.applyAsInt(cell));
+    }
+  }
+
+  // paints the block of the given cell: its color, then its walls and corners
+  void paint(int cell, int rgb) {
+    int left = this.blockLeft(cell);
+    int top = this.blockTop(cell);
+    int right = left + this.scaleWidth;
+    int bottom = top + this.scaleHeight;
+    this.fill(left, top, right, bottom, rgb);
+
+    if (this.scaleWidth == 1 || this.scaleHeight == 1) {
+      return;
+    }
+    if (this.thin) {
+      if (!this.maze.hasEast(cell)) {
+        this.fill(right - this.wall, top, right, bottom, WALL);
+      }
+      if (!this.maze.hasSouth(cell)) {
+        this.fill(left, bottom - this.wall, right, bottom, WALL);
+      }
+      this.fill(right - this.wall, bottom - this.wall, right, bottom, WALL);
+    }
+    else {
+      if (!this.maze.hasWest(cell)) {
+        this.fill(left, top, left + this.wall, bottom, WALL);
+      }
+      if (!this.maze.hasEast(cell)) {
+        this.fill(right - this.wall, top, right, bottom, WALL);
+      }
+      if (!this.maze.hasNorth(cell)) {
+        this.fill(left, top, right, top + this.wall, WALL);
+      }
+      if (!this.maze.hasSouth(cell)) {
+        this.fill(left, bottom - this.wall, right, bottom, WALL);
+      }
+      this.fill(left, top, left + this.wall, top + this.wall, WALL);
+      this.fill(right - this.wall, top, right, top + this.wall, WALL);
+      this.fill(left, bottom - this.wall, left + this.wall, bottom, WALL);
+      this.fill(right - this.wall, bottom - this.wall, right, bottom, WALL);
+    }
+  }
+
+  // fills the pixels in [left, right) x [top, bottom) with the given color
+  void fill(int left, int top, int right, int bottom, int rgb) {
+    int stride = this.pixelWidth();
+    for (int y = top; y < bottom; y++) {
+      Arrays.fill(this.pixels, y * stride + left, y * stride + right, rgb);
+    }
+  }
+
+  // the RGB color of the given pixel
+  int pixel(int x, int y) {
+    return this.pixels[y * this.pixelWidth() + x];
+  }
+
+  // writes the image as a PNG file
+  void writePng(Path file) throws IOException {
+    try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+      if (!ImageIO.write(this.image, "png", out)) {
+        throw new IOException("No PNG writer available");
+      }
+    }
+  }
+
+  // usage: MazeRaster maze-file png-file [scale]
+  // draws the first maze of a file written by MazeIO with white cells
+  public static void main(String[] args) throws IOException {
+    if (args.length != 2 && args.length != 3) {
+      System.err.println("usage: MazeRaster maze-file png-file [scale]");
+      System.exit(2);
+    }
+    int scale = args.length == 3 ? Integer.parseInt(args[2]) : 4;
+    try (MappedMaze maze = new MappedMaze(Paths.get(args[0]))) {
+      MazeRaster raster = new MazeRaster(maze, scale, scale);
+      raster.paintAll(cell -> 0xFFFFFF);
+      raster.writePng(Paths.get(args[1]));
+      System.out.println(raster.pixelWidth() + "x" + raster.pixelHeight()
+          + " pixels written to " + args[1]);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+// to read mazes in the binary maze format from a channel through one buffer
+class MazeReader implements Closeable {
+
+  // the channel the records come from
+  final ReadableByteChannel channel;
+
+  // the bytes read but not yet consumed
+  final ByteBuffer buffer = ByteBuffer.allocateDirect(MazeIO.BUFFER_BYTES)
+      .order(ByteOrder.LITTLE_ENDIAN);
+
+  // the seed of the last maze read
+  long seed;
+
+  MazeReader(ReadableByteChannel channel) {
+    this.channel = channel;
+    this.buffer.flip();
+  }
+
+  // opens the given file for reading
+  static MazeReader open(Path file) throws IOException {
+    return new MazeReader(FileChannel.open(file, StandardOpenOption.READ));
+  }
+
+  // reads the next maze, or produces null when the channel has no more records
+  MazeGrid next() throws IOException {
+    if (!this.fill(MazeIO.HEADER_BYTES)) {
+      if (this.buffer.hasRemaining()) {
+        throw new EOFException("Truncated maze header");
+      }
+      return null;
+    }
+    int magic = this.buffer.getInt();
+    short version = this.buffer.getShort();
+    this.buffer.getShort();
+    if (magic != MazeIO.MAGIC) {
+      throw new IOException("Not a maze record");
+    }
+    if (version != MazeIO.VERSION) {
+      throw new IOException("Unsupported maze format version " + version);
+    }
+    int width = this.buffer.getInt();
+    int height = this.buffer.getInt();
+    this.seed = this.buffer.getLong();
+
+    MazeGrid grid = new MazeGrid(width, height);
+    long bytes = MazeIO.dataBytes(width, height);
+    int fullWords = (int) (bytes / 8);
+    for (int i = 0; i < fullWords; i++) {
+      this.require(8);
+      grid.passages[i] = this.buffer.getLong();
+    }
+    int rest = (int) (bytes % 8);
+    if (rest > 0) {
+      this.require(rest);
+      long last = 0;
+      for (int b = 0; b < rest; b++) {
+        last |= (this.buffer.get() & 0xFFL) << (8 * b);
+      }
+      grid.passages[fullWords] = last;
+    }
+    int stray = grid.strayEdge();
+    if (stray >= 0) {
+      throw new IOException("Passage out of the " + width + "x" + height
+          + " maze at edge id " + stray);
+    }
+    return grid;
+  }
+
+  // makes sure the given number of bytes is buffered, or throws at the end
+  // of the channel
+  void require(int bytes) throws IOException {
+    if (!this.fill(bytes)) {
+      throw new EOFException("Truncated maze record");
+    }
+  }
+
+  // reads until the given number of bytes is buffered, produces false if the
+  // channel ends first
+  boolean fill(int bytes) throws IOException {
+    if (this.buffer.remaining() >= bytes) {
+      return true;
+    }
+    this.buffer.compact();
+    while (this.buffer.position() < bytes) {
+      if (this.channel.read(this.buffer) < 0) {
+        this.buffer.flip();
+        return false;
+      }
+    }
+    this.buffer.flip();
+    return true;
+  }
+
+  // closes the channel
+  public void close() throws IOException {
+    this.channel.close();
+  }
+}
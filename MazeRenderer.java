@@ -0,0 +1,109 @@
+import java.util.function.*;
+import java.awt.Color;
+import javalib.worldimages.*;
+
+// to draw a maze into a single pixel layer for the world: the cells are
+// painted into a MazeRaster, once per generated maze and afterwards only for
+// cells whose color changed, and the painted pixels are copied into the
+// ComputedPixelImage the scene shows
+class MazeRenderer {
+
+  // the color of walls and wall corners
+  static final Color WALL = new Color(MazeRaster.WALL);
+
+  // the maze being drawn
+  final MazeGrid grid;
+
+  // the width of a cell block in pixels
+  final int scaleWidth;
+
+  // the height of a cell block in pixels
+  final int scaleHeight;
+
+  // the thickness of a wall inside a cell block
+  final int wall;
+
+  // the pixels of the drawn maze, painted first
+  final MazeRaster raster;
+
+  // the pixels of the drawn maze as an image for the scene
+  final ComputedPixelImage layer;
+
+  // the color each cell block was last painted with
+  final Color[] painted;
+
+  // the Colors copied into layer, by a hash of their RGB value, so that
+  // copying the same colors again allocates nothing
+  final Color[] palette = new Color[64];
+
+  // the RGB color the raster paints every cell with
+  final IntUnaryOperator colorOf;
+
+  MazeRenderer(MazeGrid grid, int scaleWidth, int scaleHeight) {
+    this.grid = grid;
+    this.raster = new MazeRaster(grid, scaleWidth, scaleHeight);
+    this.scaleWidth = this.raster.scaleWidth;
+    this.scaleHeight = this.raster.scaleHeight;
+    this.wall = this.raster.wall;
+    this.layer = new ComputedPixelImage(this.raster.pixelWidth(), this.raster.pixelHeight());
+    this.painted = new Color[grid.cells()];
+    this.colorOf = cell -> this.painted[cell].getRGB() & 0xFFFFFF;
+  }
+
+  // the width of the layer in pixels
+  int pixelWidth() {
+    return this.raster.pixelWidth();
+  }
+
+  // the height of the layer in pixels
+  int pixelHeight() {
+    return this.raster.pixelHeight();
+  }
+
+  // paints every cell with its color in the given array, rows first
+  void paintAll(Color[] colors) {
+    System.arraycopy(colors, 0, this.painted, 0, this.painted.length);
+    this.raster.paintAll(this.colorOf);
+    this.copy(0, 0, this.pixelWidth(), this.pixelHeight());
+  }
+
+  // paints the given cell with the given color unless it already has it,
+  // produces whether anything was painted
+  boolean update(int cell, Color color) {
+    if (color.equals(this.painted[cell])) {
+      return false;
+    }
+    this.paint(cell, color);
+    return true;
+  }
+
+  // paints the block of the given cell: its color, then its walls and corners
+  void paint(int cell, Color color) {
+    this.raster.paint(cell, color.getRGB() & 0xFFFFFF);
+    int left = this.raster.blockLeft(cell);
+    int top = this.raster.blockTop(cell);
+    this.copy(left, top, left + this.scaleWidth, top + this.scaleHeight);
+    this.painted[cell] = color;
+  }
+
+  // the Color of the given RGB value, from the palette when it is there
+  Color color(int rgb) {
+    int slot = (rgb * 0x9E3779B1) >>> 26;
+    Color c = this.palette[slot];
+    if (c == null || (c.getRGB() & 0xFFFFFF) != rgb) {
+      c = new Color(rgb);
+      this.palette[slot] = c;
+    }
+    return c;
+  }
+
+  // copies the pixels in [left, right) x [top, bottom) from the raster into
+  // the layer
+  void copy(int left, int top, int right, int bottom) {
+    for (int y = top; y < bottom; y++) {
+      for (int x = left; x < right; x++) {
+        this.layer.setPixel(x, y, this.color(this.raster.pixel(x, y)));
+      }
+    }
+  }
+}
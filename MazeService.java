@@ -0,0 +1,71 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+// to generate many mazes at once for a server: every task has its own
+// dimensions and its own seed, and touches no shared or static
+// state, so tasks run concurrently on virtual threads (or on a pool of
+// platform threads on JVMs without them) and hand their mazes over through a
+// bounded queue, which holds generation back when consumers fall behind
+class MazeService implements AutoCloseable {
+
+  // the weight bound used for every edge, as in Maze
+  static final int WEIGHT_BOUND = 100;
+
+  // runs the generation tasks
+  final ExecutorService executor;
+
+  // the finished mazes waiting for a consumer
+  final BlockingQueue<GeneratedMaze> results;
+
+  MazeService(int capacity) {
+    this.executor = newExecutor();
+    this.results = new ArrayBlockingQueue<GeneratedMaze>(capacity);
+  }
+
+  // produces an executor that starts one virtual thread per task, or a fixed
+  // pool with one thread per core where virtual threads are not available
+  static ExecutorService newExecutor() {
+    try {
+      return (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+    catch (ReflectiveOperationException e) {
+      return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    }
+  }
+
+  // produces the maze of the given size generated from the given seed
+  static MazeGrid generate(int width, int height, long seed) {
+    return KruskalBuilder.generate(width, height, seed, WEIGHT_BOUND);
+  }
+
+  // starts generating one maze of the given size from the given seed; the
+  // maze is delivered through take()
+  Future<?> submit(int width, int height, long seed) {
+    return this.executor.submit(() -> {
+      this.results.put(new GeneratedMaze(seed, generate(width, height, seed)));
+      return null;
+    });
+  }
+
+  // starts generating count mazes of the given size, with task seeds drawn
+  // from a SplittableRandom with the given seed
+  List<Future<?>> submitAll(int width, int height, long seed, int count) {
+    SplittableRandom seeds = new SplittableRandom(seed);
+    List<Future<?>> tasks = new ArrayList<Future<?>>(count);
+    for (int i = 0; i < count; i++) {
+      tasks.add(this.submit(width, height, seeds.nextLong()));
+    }
+    return tasks;
+  }
+
+  // waits for and removes the next finished maze
+  GeneratedMaze take() throws InterruptedException {
+    return this.results.take();
+  }
+
+  // stops accepting tasks and interrupts the running ones
+  public void close() {
+    this.executor.shutdownNow();
+  }
+}
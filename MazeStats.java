@@ -0,0 +1,94 @@
+import java.util.*;
+
+// to represent the difficulty statistics of one maze; the local counts are
+// summed over bands of rows, the path lengths come from whole-maze searches
+class MazeStats {
+
+  // the seed the maze was generated from
+  long seed;
+
+  // the number of cells
+  long cells;
+
+  // the number of passages
+  long passages;
+
+  // the number of cells with each number of passages, 0 to 4
+  final long[] degrees = new long[5];
+
+  // the number of passages of the path from the top left to the bottom right
+  // cell, -1 when there is none
+  int solution;
+
+  // the number of passages of a longest shortest path, exact on a maze
+  // without loops and a lower bound otherwise
+  int diameter;
+
+  // the number of cells a corridor runs straight through
+  long straight;
+
+  // the number of cells where a corridor turns
+  long turns;
+
+  // the number of maximal horizontal runs of passages
+  long horizontalRuns;
+
+  // the number of maximal vertical runs of passages
+  long verticalRuns;
+
+  // the number of passages of the longest straight run
+  int longestRun;
+
+  // the number of cells with one passage
+  long deadEnds() {
+    return this.degrees[1];
+  }
+
+  // the number of cells with three or four passages
+  long junctions() {
+    return this.degrees[3] + this.degrees[4];
+  }
+
+  // the share of cells that are inside a corridor, the river factor
+  double river() {
+    return this.cells == 0 ? 0 : (double) (this.straight + this.turns) / this.cells;
+  }
+
+  // the share of corridor cells that run straight through
+  double straightness() {
+    long corridor = this.straight + this.turns;
+    return corridor == 0 ? 0 : (double) this.straight / corridor;
+  }
+
+  // the mean number of passages in a maximal straight run
+  double meanRun() {
+    long runs = this.horizontalRuns + this.verticalRuns;
+    return runs == 0 ? 0 : (double) this.passages / runs;
+  }
+
+  // adds the local counts of the given band to these
+  MazeStats add(MazeStats band) {
+    this.cells += band.cells;
+    this.passages += band.passages;
+    for (int d = 0; d < this.degrees.length; d++) {
+      this.degrees[d] += band.degrees[d];
+    }
+    this.straight += band.straight;
+    this.turns += band.turns;
+    this.horizontalRuns += band.horizontalRuns;
+    this.verticalRuns += band.verticalRuns;
+    this.longestRun = Math.max(this.longestRun, band.longestRun);
+    return this;
+  }
+
+  // produces these statistics as one line of JSON
+  String toJson() {
+    return String.format(Locale.ROOT, "{\"seed\":%d,\"cells\":%d,\"passages\":%d,"
+        + "\"deadEnds\":%d,\"junctions\":%d,\"degrees\":[%d,%d,%d,%d,%d],\"solution\":%d,"
+        + "\"diameter\":%d,\"river\":%.4f,\"straightness\":%.4f,\"meanRun\":%.3f,"
+        + "\"longestRun\":%d}", this.seed, this.cells, this.passages, this.deadEnds(),
+        this.junctions(), this.degrees[0], this.degrees[1], this.degrees[2], this.degrees[3],
+        this.degrees[4], this.solution, this.diameter, this.river(), this.straightness(),
+        this.meanRun(), this.longestRun);
+  }
+}
@@ -0,0 +1,139 @@
+// to represent read-only access to the passages of a grid maze whose cells are
+// numbered y * width + x, whether it lives on the heap or in a mapped file.
+// The int cell methods cover mazes of up to Integer.MAX_VALUE cells, which
+// is what the solvers index their arrays with; the long cell methods cover
+// every maze, and views that can hold larger mazes override them
+interface MazeView {
+
+  // the number of columns
+  int width();
+
+  // the number of rows
+  int height();
+
+  // determines if the given cell has a passage to its east neighbor
+  boolean hasEast(int cell);
+
+  // determines if the given cell has a passage to its south neighbor
+  boolean hasSouth(int cell);
+
+  // the number of cells, which may exceed the int range
+  default long cellCount() {
+    return (long) this.width() * this.height();
+  }
+
+  // the number of cells, for mazes whose cells fit int ids
+  default int cells() {
+    long cells = this.cellCount();
+    if (cells > Integer.MAX_VALUE) {
+      throw new IllegalStateException("Maze of " + this.width() + "x" + this.height()
+          + " has " + cells + " cells, more than int cell ids can address;"
+          + " use the long cell methods");
+    }
+    return (int) cells;
+  }
+
+  // determines if the given cell has a passage to its west neighbor
+  default boolean hasWest(int cell) {
+    return cell % this.width() != 0 && this.hasEast(cell - 1);
+  }
+
+  // determines if the given cell has a passage to its north neighbor
+  default boolean hasNorth(int cell) {
+    return cell >= this.width() && this.hasSouth(cell - this.width());
+  }
+
+  // writes the cells reachable in one step from the given cell into out
+  // (east, south, west, north order) and produces how many were written
+  default int neighbors(int cell, int[] out) {
+    int n = 0;
+    if (this.hasEast(cell)) {
+      out[n++] = cell + 1;
+    }
+    if (this.hasSouth(cell)) {
+      out[n++] = cell + this.width();
+    }
+    if (this.hasWest(cell)) {
+      out[n++] = cell - 1;
+    }
+    if (this.hasNorth(cell)) {
+      out[n++] = cell - this.width();
+    }
+    return n;
+  }
+
+  // determines if the given cell has a passage to its east neighbor
+  default boolean hasEast(long cell) {
+    return this.hasEast(Math.toIntExact(cell));
+  }
+
+  // determines if the given cell has a passage to its south neighbor
+  default boolean hasSouth(long cell) {
+    return this.hasSouth(Math.toIntExact(cell));
+  }
+
+  // determines if the given cell has a passage to its west neighbor
+  default boolean hasWest(long cell) {
+    return cell % this.width() != 0 && this.hasEast(cell - 1);
+  }
+
+  // determines if the given cell has a passage to its north neighbor
+  default boolean hasNorth(long cell) {
+    return cell >= this.width() && this.hasSouth(cell - this.width());
+  }
+
+  // writes the cells reachable in one step from the given cell into out
+  // (east, south, west, north order) and produces how many were written
+  default int neighbors(long cell, long[] out) {
+    int n = 0;
+    if (this.hasEast(cell)) {
+      out[n++] = cell + 1;
+    }
+    if (this.hasSouth(cell)) {
+      out[n++] = cell + this.width();
+    }
+    if (this.hasWest(cell)) {
+      out[n++] = cell - 1;
+    }
+    if (this.hasNorth(cell)) {
+      out[n++] = cell - this.width();
+    }
+    return n;
+  }
+
+  // the number of passages leaving the given cell
+  default int degree(long cell) {
+    int n = 0;
+    if (this.hasEast(cell)) {
+      n++;
+    }
+    if (this.hasSouth(cell)) {
+      n++;
+    }
+    if (this.hasWest(cell)) {
+      n++;
+    }
+    if (this.hasNorth(cell)) {
+      n++;
+    }
+    return n;
+  }
+
+  // the number of passages leaving the given cell
+  default int degree(int cell) {
+    int n = 0;
+    if (this.hasEast(cell)) {
+      n++;
+    }
+    if (this.hasSouth(cell)) {
+      n++;
+    }
+    if (this.hasWest(cell)) {
+      n++;
+    }
+    if (this.hasNorth(cell)) {
+      n++;
+    }
+    return n;
+  }
+}
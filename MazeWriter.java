@@ -0,0 +1,81 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+// to write mazes to a channel in the binary maze format through one buffer
+class MazeWriter implements Closeable {
+
+  // the channel the records go to
+  final WritableByteChannel channel;
+
+  // the pending bytes
+  final ByteBuffer buffer = ByteBuffer.allocateDirect(MazeIO.BUFFER_BYTES)
+      .order(ByteOrder.LITTLE_ENDIAN);
+
+  // the number of mazes written
+  int written;
+
+  MazeWriter(WritableByteChannel channel) {
+    this.channel = channel;
+  }
+
+  // opens the given file for writing, replacing what was there
+  static MazeWriter create(Path file) throws IOException {
+    return new MazeWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+  }
+
+  // appends the given maze with the seed it was generated from
+  void write(MazeGrid grid, long seed) throws IOException {
+    this.reserve(MazeIO.HEADER_BYTES);
+    this.buffer.putInt(MazeIO.MAGIC);
+    this.buffer.putShort(MazeIO.VERSION);
+    this.buffer.putShort((short) 0);
+    this.buffer.putInt(grid.width);
+    this.buffer.putInt(grid.height);
+    this.buffer.putLong(seed);
+
+    long bytes = MazeIO.dataBytes(grid.width, grid.height);
+    int fullWords = (int) (bytes / 8);
+    for (int i = 0; i < fullWords; i++) {
+      this.reserve(8);
+      this.buffer.putLong(grid.passages[i]);
+    }
+    int rest = (int) (bytes % 8);
+    if (rest > 0) {
+      this.reserve(rest);
+      long last = grid.passages[fullWords];
+      for (int b = 0; b < rest; b++) {
+        this.buffer.put((byte) (last >>> (8 * b)));
+      }
+    }
+    this.written++;
+  }
+
+  // makes room for the given number of bytes in the buffer
+  void reserve(int bytes) throws IOException {
+    if (this.buffer.remaining() < bytes) {
+      this.flush();
+    }
+  }
+
+  // writes every pending byte to the channel
+  void flush() throws IOException {
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      this.channel.write(this.buffer);
+    }
+    this.buffer.clear();
+  }
+
+  // flushes and closes the channel
+  public void close() throws IOException {
+    try {
+      this.flush();
+    }
+    finally {
+      this.channel.close();
+    }
+  }
+}
@@ -0,0 +1,56 @@
+import java.io.*;
+import java.util.*;
+
+// to aggregate every search it is told about into histograms per algorithm,
+// and optionally log every search as a line of JSON; solvers on several
+// threads may share one recorder
+class MetricsRecorder implements SearchListener {
+
+  // the statistics of every algorithm, in the order they first ran
+  final Map<String, SearchStats> stats = new LinkedHashMap<String, SearchStats>();
+
+  // where every search is logged, or null
+  final Appendable log;
+
+  // the number of searches recorded
+  long searches;
+
+  MetricsRecorder() {
+    this(null);
+  }
+
+  MetricsRecorder(Appendable log) {
+    this.log = log;
+  }
+
+  // adds the given search
+  public synchronized void searched(SearchMetrics m) {
+    SearchStats s = this.stats.get(m.algorithm);
+    if (s == null) {
+      s = new SearchStats(m.algorithm);
+      this.stats.put(m.algorithm, s);
+    }
+    s.record(m);
+    this.searches++;
+    if (this.log != null) {
+      try {
+        this.log.append(m.toJson()).append('\n');
+      }
+      catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  // the statistics of the given algorithm, or null if it never ran
+  synchronized SearchStats get(String algorithm) {
+    return this.stats.get(algorithm);
+  }
+
+  // writes the statistics of every algorithm, one line of JSON each
+  synchronized void writeJsonLines(Appendable out) throws IOException {
+    for (SearchStats s : this.stats.values()) {
+      out.append(s.toJson()).append('\n');
+    }
+  }
+}
@@ -0,0 +1,158 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+// to build a perfect maze on several cores: the grid is cut into square tiles,
+// every tile gets its own Kruskal spanning tree in a ForkJoinPool, and the
+// tiles are then joined by one sequential Kruskal pass over the edges that
+// cross tile boundaries. Tiles only ever touch the disjoint-set entries of
+// their own cells and link them without counting the sets, so they can share
+// one forest without locking
+class ParallelKruskal {
+
+  // the side of a tile in cells when none is given
+  static final int DEFAULT_TILE = 256;
+
+  // the grid the passages are written into
+  final MazeGrid grid;
+
+  // the weight of every edge, indexed by edge id
+  final int[] weights;
+
+  // the side of a tile in cells
+  final int tile;
+
+  // the number of tile columns
+  final int tilesAcross;
+
+  // the number of tile rows
+  final int tilesDown;
+
+  // the connected regions of the grid so far
+  final DisjointSet sets;
+
+  // the passages accepted inside every tile
+  final int[][] accepted;
+
+  // the number of passages accepted inside every tile
+  final int[] acceptedCounts;
+
+  ParallelKruskal(MazeGrid grid, int[] weights, int tile) {
+    if (tile < 2) {
+      throw new IllegalArgumentException("Tiles must be at least 2 cells wide: " + tile);
+    }
+    this.grid = grid;
+    this.weights = weights;
+    this.tile = tile;
+    this.tilesAcross = (grid.width + tile - 1) / tile;
+    this.tilesDown = (grid.height + tile - 1) / tile;
+    this.sets = new DisjointSet(grid.cells());
+    this.accepted = new int[this.tilesAcross * this.tilesDown][];
+    this.acceptedCounts = new int[this.accepted.length];
+  }
+
+  // builds the spanning tree of every tile in the given pool, then joins the
+  // tiles; produces the number of passages opened
+  int build(ForkJoinPool pool) {
+    pool.invoke(new TileTask(this, 0, this.accepted.length));
+
+    int opened = 0;
+    for (int t = 0; t < this.accepted.length; t++) {
+      for (int i = 0; i < this.acceptedCounts[t]; i++) {
+        this.grid.open(this.accepted[t][i]);
+      }
+      opened += this.acceptedCounts[t];
+      this.accepted[t] = null;
+    }
+    // the tiles linked without counting, so the set count is settled here
+    this.sets.sets = this.grid.cells() - opened;
+    return opened + this.joinTiles();
+  }
+
+  // builds the spanning tree of the tile with the given number
+  void buildTile(int t) {
+    int x0 = (t % this.tilesAcross) * this.tile;
+    int y0 = (t / this.tilesAcross) * this.tile;
+    int x1 = Math.min(x0 + this.tile, this.grid.width);
+    int y1 = Math.min(y0 + this.tile, this.grid.height);
+
+    int[] edges = new int[2 * (x1 - x0) * (y1 - y0)];
+    int n = 0;
+    for (int y = y0; y < y1; y++) {
+      for (int x = x0; x < x1; x++) {
+        int cell = this.grid.index(x, y);
+        if (x + 1 < x1) {
+          edges[n++] = 2 * cell + MazeGrid.EAST;
+        }
+        if (y + 1 < y1) {
+          edges[n++] = 2 * cell + MazeGrid.SOUTH;
+        }
+      }
+    }
+    new EdgeSorter().sort(edges, n, this.weights);
+
+    int target = (x1 - x0) * (y1 - y0) - 1;
+    int[] tree = new int[Math.max(target, 0)];
+    int count = 0;
+    for (int cursor = 0; cursor < n && count < target; cursor++) {
+      int edge = edges[cursor];
+      if (this.sets.link(this.grid.edgeFrom(edge), this.grid.edgeTo(edge))) {
+        tree[count++] = edge;
+      }
+    }
+    this.accepted[t] = tree;
+    this.acceptedCounts[t] = count;
+  }
+
+  // joins the tile trees with Kruskal over the edges crossing tile
+  // boundaries, produces the number of passages opened
+  int joinTiles() {
+    int[] edges = new int[this.grid.width * (this.tilesDown - 1)
+        + this.grid.height * (this.tilesAcross - 1)];
+    int n = 0;
+    for (int y = 0; y < this.grid.height; y++) {
+      for (int x = this.tile - 1; x < this.grid.width - 1; x += this.tile) {
+        edges[n++] = 2 * this.grid.index(x, y) + MazeGrid.EAST;
+      }
+    }
+    for (int y = this.tile - 1; y < this.grid.height - 1; y += this.tile) {
+      for (int x = 0; x < this.grid.width; x++) {
+        edges[n++] = 2 * this.grid.index(x, y) + MazeGrid.SOUTH;
+      }
+    }
+    new EdgeSorter().sort(edges, n, this.weights);
+
+    int opened = 0;
+    for (int cursor = 0; cursor < n && this.sets.sets > 1; cursor++) {
+      int edge = edges[cursor];
+      if (this.sets.union(this.grid.edgeFrom(edge), this.grid.edgeTo(edge))) {
+        this.grid.open(edge);
+        opened++;
+      }
+    }
+    return opened;
+  }
+
+  // produces the perfect maze of the given size for the given seed, built in
+  // the given pool; the weights come from EdgeWeights and the tiles have a
+  // fixed size, so the maze is the same for every number of threads
+  static MazeGrid generate(int width, int height, long seed, int bound, ForkJoinPool pool) {
+    MazeGrid grid = new MazeGrid(width, height);
+    int[] weights = new int[grid.edgeIds()];
+    weigh(grid, seed, bound, bound, weights, pool);
+    new ParallelKruskal(grid, weights, DEFAULT_TILE).build(pool);
+    return grid;
+  }
+
+  // fills the weight of every candidate edge of the given grid in the given
+  // pool, with the bound for east edges and the bound for south edges, the
+  // weights EdgeWeights.fill produces
+  static void weigh(MazeGrid grid, long seed, int eastBound, int southBound, int[] weights,
+      ForkJoinPool pool) {
+    pool.submit(() -> IntStream.range(0, grid.edgeIds()).parallel().forEach(edge -> {
+      if (grid.isCandidate(edge)) {
+        weights[edge] = EdgeWeights.weight(seed, edge, eastBound, southBound);
+      }
+    })).join();
+  }
+}
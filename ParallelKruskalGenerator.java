@@ -0,0 +1,54 @@
+import java.util.concurrent.*;
+
+// to generate large mazes with randomized Kruskal on several cores, through
+// the tiles of ParallelKruskal: the maze for a seed is the same for every
+// number of threads, but differs from the one KruskalGenerator builds
+class ParallelKruskalGenerator implements MazeGenerator {
+
+  // the bound of the random weights of east edges
+  int eastBound;
+
+  // the bound of the random weights of south edges
+  int southBound;
+
+  // the pool the tiles are built in
+  final ForkJoinPool pool;
+
+  // the weight of every edge of the last grid generated into
+  int[] weights = new int[0];
+
+  // the regions joined for the last grid generated into
+  DisjointSet sets;
+
+  ParallelKruskalGenerator() {
+    this(100, 100, ForkJoinPool.commonPool());
+  }
+
+  ParallelKruskalGenerator(int eastBound, int southBound, ForkJoinPool pool) {
+    this.eastBound = eastBound;
+    this.southBound = southBound;
+    this.pool = pool;
+  }
+
+  // produces the perfect maze of the given size for the given seed
+  public MazeGrid generate(int width, int height, long seed) {
+    MazeGrid grid = new MazeGrid(width, height);
+    int[] fresh = new int[grid.edgeIds()];
+    ParallelKruskal.weigh(grid, seed, this.eastBound, this.southBound, fresh, this.pool);
+    new ParallelKruskal(grid, fresh, ParallelKruskal.DEFAULT_TILE).build(this.pool);
+    return grid;
+  }
+
+  // replaces the passages of the given grid with the maze for the given seed
+  public void generate(MazeGrid into, long seed) {
+    if (this.weights.length != into.edgeIds()) {
+      this.weights = new int[into.edgeIds()];
+    }
+    into.clear();
+    ParallelKruskal.weigh(into, seed, this.eastBound, this.southBound, this.weights, this.pool);
+    ParallelKruskal builder = new ParallelKruskal(into, this.weights,
+        ParallelKruskal.DEFAULT_TILE);
+    builder.build(this.pool);
+    this.sets = builder.sets;
+  }
+}
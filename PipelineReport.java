@@ -0,0 +1,12 @@
+// to represent what a run of a MazePipeline produced
+class PipelineReport {
+  long rows;
+  long bytes;
+  StreamingChecker checker;
+
+  PipelineReport(long rows, long bytes, StreamingChecker checker) {
+    this.rows = rows;
+    this.bytes = bytes;
+    this.checker = checker;
+  }
+}
@@ -0,0 +1,139 @@
+import java.awt.Color;
+
+// to replay a finished search: the cells it expanded are revealed first, in
+// order, then the cells of the path it found. Every tick reveals step cells,
+// or, with a time budget, as many as fit in it; the trace and the path are
+// the int arrays of the solver, so loading a search copies nothing
+class Playback {
+
+  // the largest number of cells a tick reveals
+  static final int MAX_STEP = 1 << 20;
+
+  // how many cells are revealed between two looks at the clock
+  static final int CLOCK_CELLS = 16;
+
+  // the color of expanded cells
+  final Color traceColor;
+
+  // the color of path cells
+  final Color pathColor;
+
+  // the cells in the order they were expanded
+  int[] trace = new int[0];
+
+  // the number of cells in trace
+  int traceLength;
+
+  // the cells of the path, start first
+  int[] path = new int[0];
+
+  // the number of cells in path
+  int pathLength;
+
+  // the next cell of trace to reveal
+  int traceCursor;
+
+  // the next cell of path to reveal
+  int pathCursor;
+
+  // the number of cells a tick reveals
+  int step = 1;
+
+  // the time a tick may spend revealing cells, 0 to reveal step cells instead
+  long budgetNanos;
+
+  Playback(Color traceColor, Color pathColor) {
+    this.traceColor = traceColor;
+    this.pathColor = pathColor;
+  }
+
+  // starts replaying the given trace and path from their first cells
+  void load(int[] trace, int traceLength, int[] path, int pathLength) {
+    this.trace = trace;
+    this.traceLength = traceLength;
+    this.path = path;
+    this.pathLength = pathLength;
+    this.traceCursor = 0;
+    this.pathCursor = 0;
+  }
+
+  // starts replaying the last search of the given solver
+  void load(GridSolver s) {
+    this.load(s.trace, s.traceLength, s.path, s.pathLength);
+  }
+
+  // stops replaying, nothing is left to reveal
+  void stop() {
+    this.traceCursor = this.traceLength;
+    this.pathCursor = this.pathLength;
+  }
+
+  // determines if expanded cells are still being revealed
+  boolean isTracing() {
+    return this.traceCursor < this.traceLength;
+  }
+
+  // determines if the path is being revealed
+  boolean isSolving() {
+    return !this.isTracing() && this.pathCursor < this.pathLength;
+  }
+
+  // determines if everything has been revealed
+  boolean isDone() {
+    return !this.isTracing() && !this.isSolving();
+  }
+
+  // reveals the next cell with the given painter, produces false when
+  // everything has already been revealed
+  boolean next(CellPainter painter) {
+    if (this.traceCursor < this.traceLength) {
+      painter.paint(this.trace[this.traceCursor++], this.traceColor);
+      return true;
+    }
+    if (this.pathCursor < this.pathLength) {
+      painter.paint(this.path[this.pathCursor++], this.pathColor);
+      return true;
+    }
+    return false;
+  }
+
+  // reveals the cells of one tick, produces how many were revealed
+  int tick(CellPainter painter) {
+    if (this.budgetNanos <= 0) {
+      int n = 0;
+      while (n < this.step && this.next(painter)) {
+        n++;
+      }
+      return n;
+    }
+    long deadline = System.nanoTime() + this.budgetNanos;
+    int n = 0;
+    while (this.next(painter)) {
+      n++;
+      if (n % CLOCK_CELLS == 0 && System.nanoTime() - deadline >= 0) {
+        break;
+      }
+    }
+    return n;
+  }
+
+  // reveals the rest of the trace and the whole path at once, produces how
+  // many cells were revealed
+  int skipToSolution(CellPainter painter) {
+    int n = 0;
+    while (this.next(painter)) {
+      n++;
+    }
+    return n;
+  }
+
+  // doubles the number of cells a tick reveals
+  void faster() {
+    this.step = Math.min(MAX_STEP, 2 * this.step);
+  }
+
+  // halves the number of cells a tick reveals
+  void slower() {
+    this.step = Math.max(1, this.step / 2);
+  }
+}
@@ -0,0 +1,64 @@
+import java.util.*;
+
+// to answer "is there a path between these two cells" without recursion and
+// without looping on cycles: in O(alpha(n)) from the disjoint-set forest of the
+// maze while it is still around, otherwise with an iterative search that keeps
+// its visited cells in a bitset
+class Reachability {
+
+  // the maze being asked about
+  final MazeView maze;
+
+  // the regions the maze was built from, or null once they are gone
+  final DisjointSet sets;
+
+  // one bit per cell, set once the search has reached the cell
+  final long[] seen;
+
+  // the cells still to be expanded
+  final int[] stack;
+
+  // the neighbors of the cell being expanded
+  final int[] next = new int[4];
+
+  Reachability(MazeView maze, DisjointSet sets) {
+    this.maze = maze;
+    this.sets = sets;
+    this.seen = new long[(maze.cells() + 63) >>> 6];
+    this.stack = new int[maze.cells()];
+  }
+
+  // determines if there is a path between the two given cells
+  boolean connected(int a, int b) {
+    if (this.sets != null) {
+      return this.sets.connected(a, b);
+    }
+    else {
+      return this.search(a, b);
+    }
+  }
+
+  // determines if there is a path between the two given cells by searching
+  // the passages depth first
+  boolean search(int a, int b) {
+    Arrays.fill(this.seen, 0L);
+    int top = 0;
+    this.stack[top++] = a;
+    this.seen[a >>> 6] |= 1L << a;
+    while (top > 0) {
+      int cell = this.stack[--top];
+      if (cell == b) {
+        return true;
+      }
+      int n = this.maze.neighbors(cell, this.next);
+      for (int i = 0; i < n; i++) {
+        int to = this.next[i];
+        if ((this.seen[to >>> 6] & (1L << to)) == 0) {
+          this.seen[to >>> 6] |= 1L << to;
+          this.stack[top++] = to;
+        }
+      }
+    }
+    return false;
+  }
+}
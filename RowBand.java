@@ -0,0 +1,30 @@
+// to represent consecutive rows of a maze: bit x of row r of east (or south)
+// is set when the cell in column x of that row has a passage east (or south)
+class RowBand {
+
+  // the index of the first row of this band
+  int firstRow;
+
+  // the number of rows filled so far
+  int rows;
+
+  // the longs per row in east and south
+  final int words;
+
+  // the east passages, words longs per row
+  final long[] east;
+
+  // the south passages, words longs per row
+  final long[] south;
+
+  RowBand(int width, int capacity) {
+    this.words = (width + 63) >>> 6;
+    this.east = new long[capacity * this.words];
+    this.south = new long[capacity * this.words];
+  }
+
+  // the number of rows this band can hold
+  int capacity() {
+    return this.east.length / this.words;
+  }
+}
@@ -0,0 +1,8 @@
+// to receive a maze one row at a time, top row first
+interface RowSink {
+
+  // takes row y: bit x of east is set when cell x has a passage to the east,
+  // bit x of south when it has a passage to the south; the arrays are reused
+  // for the next row once this returns
+  void row(int y, long[] east, long[] south);
+}
@@ -0,0 +1,5 @@
+// to be told about every search a GridSolver finishes; the metrics passed in
+// belong to the solver and are overwritten by its next search
+interface SearchListener {
+  void searched(SearchMetrics m);
+}
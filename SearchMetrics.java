@@ -0,0 +1,94 @@
+import java.lang.management.*;
+
+// to represent the measurements of one search: every counter is kept in a
+// plain field of the solver while it runs and copied here once at the end
+class SearchMetrics {
+
+  // the allocation counters of the JVM, null when it cannot count them
+  static final com.sun.management.ThreadMXBean THREADS = threads();
+
+  // the name of the algorithm that ran
+  String algorithm = "";
+
+  // whether the target was reached
+  boolean found;
+
+  // the number of cells expanded
+  int expanded;
+
+  // the number of times a cell that had already been reached was looked at
+  int wrongMoves;
+
+  // the largest number of cells waiting in the frontier at once
+  int peakFrontier;
+
+  // the number of cells of the path found, 0 when the target was not reached
+  int pathLength;
+
+  // the wall-clock time of the search
+  long nanos;
+
+  // the bytes the search allocated on its thread, -1 when they are not counted
+  long allocatedBytes;
+
+  // when the running search started
+  long startNanos;
+
+  // the allocated bytes of the thread when the running search started
+  long startBytes;
+
+  // the allocation counters of the JVM if it supports them
+  static com.sun.management.ThreadMXBean threads() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+      if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+        return threads;
+      }
+    }
+    return null;
+  }
+
+  // the bytes allocated so far by the current thread, -1 when they are not counted
+  static long allocated() {
+    return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  // starts measuring a search with the given algorithm
+  void start(String algorithm) {
+    this.algorithm = algorithm;
+    this.startBytes = allocated();
+    this.startNanos = System.nanoTime();
+  }
+
+  // stops measuring the running search with the given final counters
+  void finish(boolean found, int expanded, int wrongMoves, int peakFrontier, int pathLength) {
+    this.nanos = System.nanoTime() - this.startNanos;
+    this.allocatedBytes = this.startBytes < 0 ? -1 : allocated() - this.startBytes;
+    this.found = found;
+    this.expanded = expanded;
+    this.wrongMoves = wrongMoves;
+    this.peakFrontier = peakFrontier;
+    this.pathLength = pathLength;
+  }
+
+  // forgets the last search
+  void clear() {
+    this.algorithm = "";
+    this.found = false;
+    this.expanded = 0;
+    this.wrongMoves = 0;
+    this.peakFrontier = 0;
+    this.pathLength = 0;
+    this.nanos = 0;
+    this.allocatedBytes = 0;
+  }
+
+  // produces these measurements as one line of JSON
+  String toJson() {
+    return "{\"algorithm\":\"" + this.algorithm + "\",\"found\":" + this.found
+        + ",\"expanded\":" + this.expanded + ",\"wrongMoves\":" + this.wrongMoves
+        + ",\"peakFrontier\":" + this.peakFrontier + ",\"pathLength\":" + this.pathLength
+        + ",\"nanos\":" + this.nanos + ",\"allocatedBytes\":" + this.allocatedBytes + "}";
+  }
+}
@@ -0,0 +1,40 @@
+// to aggregate the searches of one algorithm
+class SearchStats {
+  final String algorithm;
+  long searches;
+  long found;
+  final LogHistogram expanded = new LogHistogram();
+  final LogHistogram wrongMoves = new LogHistogram();
+  final LogHistogram peakFrontier = new LogHistogram();
+  final LogHistogram pathLength = new LogHistogram();
+  final LogHistogram nanos = new LogHistogram();
+  final LogHistogram allocatedBytes = new LogHistogram();
+
+  SearchStats(String algorithm) {
+    this.algorithm = algorithm;
+  }
+
+  // adds the given search
+  void record(SearchMetrics m) {
+    this.searches++;
+    if (m.found) {
+      this.found++;
+    }
+    this.expanded.record(m.expanded);
+    this.wrongMoves.record(m.wrongMoves);
+    this.peakFrontier.record(m.peakFrontier);
+    this.pathLength.record(m.pathLength);
+    this.nanos.record(m.nanos);
+    this.allocatedBytes.record(m.allocatedBytes);
+  }
+
+  // produces these statistics as one line of JSON
+  String toJson() {
+    return "{\"algorithm\":\"" + this.algorithm + "\",\"searches\":" + this.searches
+        + ",\"found\":" + this.found + ",\"expanded\":" + this.expanded.toJson()
+        + ",\"wrongMoves\":" + this.wrongMoves.toJson()
+        + ",\"peakFrontier\":" + this.peakFrontier.toJson()
+        + ",\"pathLength\":" + this.pathLength.toJson() + ",\"nanos\":" + this.nanos.toJson()
+        + ",\"allocatedBytes\":" + this.allocatedBytes.toJson() + "}";
+  }
+}
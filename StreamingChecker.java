@@ -0,0 +1,142 @@
+import java.util.*;
+
+// to check a maze that arrives one row at a time with O(width) memory: every
+// cell of the current row carries the label of the region it belongs to among
+// the rows seen so far. A passage inside one region closes a cycle, and a
+// region with no passage into the next row is cut off from the rest, so the
+// maze is perfect when neither happens and the last row ends as one region.
+// The region of the top left cell is followed to answer whether the bottom
+// right cell can be reached from it
+class StreamingChecker {
+
+  // the number of columns
+  final int width;
+
+  // the region label of every cell of the last row: labels below regions
+  // name the regions of the last row, width + x a region starting at x
+  final int[] label;
+
+  // the union-find parents of the labels while a row is joined
+  final int[] parent;
+
+  // whether a region of the last row has a passage into the current row
+  final boolean[] continues;
+
+  // the new label of every label when a row is renumbered
+  final int[] remap;
+
+  // the south passages of the last row
+  final long[] south;
+
+  // the number of regions in the last row
+  int regions;
+
+  // the label of the region holding the top left cell, -1 once it is cut off
+  int start;
+
+  // the number of rows checked
+  long rows;
+
+  // the number of passages seen
+  long passages;
+
+  // whether some passages closed a cycle
+  boolean cycle;
+
+  // whether some region was cut off from the rest
+  boolean disconnected;
+
+  // whether the bottom right cell was reached from the top left one
+  boolean solvable;
+
+  StreamingChecker(int width) {
+    this.width = width;
+    this.label = new int[width];
+    this.parent = new int[2 * width];
+    this.continues = new boolean[width];
+    this.remap = new int[2 * width];
+    this.south = new long[(width + 63) >>> 6];
+  }
+
+  // determines if the rows checked form a perfect maze
+  boolean perfect() {
+    return !this.cycle && !this.disconnected;
+  }
+
+  // checks the next row, given its east and south passages from offset on;
+  // last is true for the bottom row
+  void row(long[] east, long[] south, int offset, boolean last) {
+    int w = this.width;
+    for (int l = 0; l < 2 * w; l++) {
+      this.parent[l] = l;
+    }
+    Arrays.fill(this.continues, false);
+
+    // cells below a south passage stay in the region above
+    for (int x = 0; x < w; x++) {
+      if (this.rows > 0 && (this.south[x >>> 6] & (1L << x)) != 0) {
+        this.continues[this.label[x]] = true;
+        this.passages++;
+      }
+      else {
+        this.label[x] = w + x;
+      }
+    }
+    if (this.rows == 0) {
+      this.start = w;
+    }
+    for (int l = 0; l < this.regions; l++) {
+      if (!this.continues[l]) {
+        this.disconnected = true;
+        if (l == this.start) {
+          this.start = -1;
+        }
+      }
+    }
+
+    // join the cells along east passages
+    for (int x = 0; x + 1 < w; x++) {
+      if ((east[offset + (x >>> 6)] & (1L << x)) != 0) {
+        this.passages++;
+        int a = this.find(this.label[x]);
+        int b = this.find(this.label[x + 1]);
+        if (a == b) {
+          this.cycle = true;
+        }
+        else {
+          this.parent[b] = a;
+        }
+      }
+    }
+
+    // renumber the regions of this row below width
+    Arrays.fill(this.remap, -1);
+    int startRoot = this.start >= 0 ? this.find(this.start) : -1;
+    int next = 0;
+    for (int x = 0; x < w; x++) {
+      int root = this.find(this.label[x]);
+      if (this.remap[root] < 0) {
+        this.remap[root] = next++;
+      }
+      this.label[x] = this.remap[root];
+    }
+    this.start = startRoot >= 0 ? this.remap[startRoot] : -1;
+    this.regions = next;
+    System.arraycopy(south, offset, this.south, 0, this.south.length);
+    this.rows++;
+
+    if (last) {
+      this.disconnected |= this.regions > 1;
+      this.solvable = this.start >= 0 && this.label[w - 1] == this.start;
+    }
+  }
+
+  // finds the representative of the given label, halving the path on the way
+  int find(int l) {
+    while (this.parent[l] != l) {
+      this.parent[l] = this.parent[this.parent[l]];
+      l = this.parent[l];
+    }
+    return l;
+  }
+}
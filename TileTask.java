@@ -0,0 +1,29 @@
+import java.util.concurrent.*;
+
+// to build the tiles numbered from .. to - 1, splitting the range until one
+// tile is left
+class TileTask extends RecursiveAction {
+  private static final long serialVersionUID = 1L;
+
+  ParallelKruskal builder;
+  int from;
+  int to;
+
+  TileTask(ParallelKruskal builder, int from, int to) {
+    this.builder = builder;
+    this.from = from;
+    this.to = to;
+  }
+
+  // builds the tiles of this range
+  protected void compute() {
+    if (this.to - this.from == 1) {
+      this.builder.buildTile(this.from);
+    }
+    else if (this.to > this.from) {
+      int mid = (this.from + this.to) >>> 1;
+      invokeAll(new TileTask(this.builder, this.from, mid),
+          new TileTask(this.builder, mid, this.to));
+    }
+  }
+}
@@ -0,0 +1,138 @@
+import java.util.*;
+
+// to index a perfect maze as a rooted tree so that path queries need no search:
+// every cell knows its parent, its depth and a jump pointer (skew-binary jump
+// pointers, which give O(log n) ancestor and LCA queries with O(n) memory, where
+// binary-lifting tables would need O(n log n)). Distances cost O(log n) and
+// listing a path costs O(log n + path length). On a maze with loops the index
+// describes a BFS spanning tree, so its paths are then only tree paths
+class TreeIndex {
+
+  // the maze being indexed
+  final MazeView maze;
+
+  // the parent of every cell, a root is its own parent
+  final int[] parent;
+
+  // the number of passages between every cell and its root
+  final int[] depth;
+
+  // an ancestor of every cell, further up the tree than its parent
+  final int[] jump;
+
+  // the cells in breadth first order, every parent before its children
+  final int[] order;
+
+  TreeIndex(MazeView maze) {
+    this.maze = maze;
+    int cells = maze.cells();
+    this.parent = new int[cells];
+    this.depth = new int[cells];
+    this.jump = new int[cells];
+    this.order = new int[cells];
+    Arrays.fill(this.parent, -1);
+
+    int[] next = new int[4];
+    int tail = 0;
+    for (int root = 0; root < cells; root++) {
+      if (this.parent[root] >= 0) {
+        continue;
+      }
+      this.parent[root] = root;
+      this.jump[root] = root;
+      int head = tail;
+      this.order[tail++] = root;
+      while (head < tail) {
+        int cell = this.order[head++];
+        int n = maze.neighbors(cell, next);
+        for (int i = 0; i < n; i++) {
+          int child = next[i];
+          if (this.parent[child] < 0) {
+            this.attach(child, cell);
+            this.order[tail++] = child;
+          }
+        }
+      }
+    }
+  }
+
+  // links the given cell below the given parent and picks its jump pointer
+  void attach(int cell, int p) {
+    this.parent[cell] = p;
+    this.depth[cell] = this.depth[p] + 1;
+    int j = this.jump[p];
+    int jj = this.jump[j];
+    if (this.depth[p] - this.depth[j] == this.depth[j] - this.depth[jj]) {
+      this.jump[cell] = jj;
+    }
+    else {
+      this.jump[cell] = p;
+    }
+  }
+
+  // the ancestor of the given cell at the given depth, which must not be
+  // larger than the depth of the cell
+  int ancestor(int cell, int d) {
+    while (this.depth[cell] > d) {
+      if (this.depth[this.jump[cell]] >= d) {
+        cell = this.jump[cell];
+      }
+      else {
+        cell = this.parent[cell];
+      }
+    }
+    return cell;
+  }
+
+  // the lowest common ancestor of the two given cells, or -1 if they are in
+  // different trees
+  int lca(int a, int b) {
+    if (this.depth[a] > this.depth[b]) {
+      a = this.ancestor(a, this.depth[b]);
+    }
+    else {
+      b = this.ancestor(b, this.depth[a]);
+    }
+    while (a != b) {
+      if (this.parent[a] == a) {
+        return -1;
+      }
+      if (this.jump[a] != this.jump[b]) {
+        a = this.jump[a];
+        b = this.jump[b];
+      }
+      else {
+        a = this.parent[a];
+        b = this.parent[b];
+      }
+    }
+    return a;
+  }
+
+  // the number of passages on the path between the two given cells, or -1 if
+  // there is none
+  int distance(int a, int b) {
+    int c = this.lca(a, b);
+    return c < 0 ? -1 : this.depth[a] + this.depth[b] - 2 * this.depth[c];
+  }
+
+  // writes the cells of the path from a to b into out, a first, and produces
+  // the number of cells written, or 0 if there is no path
+  int path(int a, int b, int[] out) {
+    int c = this.lca(a, b);
+    if (c < 0) {
+      return 0;
+    }
+    int n = 0;
+    for (int cell = a; cell != c; cell = this.parent[cell]) {
+      out[n++] = cell;
+    }
+    out[n++] = c;
+    int length = n + this.depth[b] - this.depth[c];
+    int i = length - 1;
+    for (int cell = b; cell != c; cell = this.parent[cell]) {
+      out[i--] = cell;
+    }
+    return length;
+  }
+}
@@ -0,0 +1,75 @@
+import java.util.*;
+
+// to generate mazes with Wilson's algorithm: loop-erased random walks from
+// every cell not yet in the maze until they hit it, which picks every spanning
+// tree of the grid with the same probability. A walk only remembers the last
+// direction it left every cell in, which erases its loops for free
+class WilsonGenerator implements MazeGenerator {
+
+  // one bit per cell, set once the cell is in the maze
+  long[] inMaze = new long[0];
+
+  // the neighbor the current walk last left every cell for
+  int[] exit = new int[0];
+
+  // the neighbors of the cell the walk is at
+  final int[] options = new int[4];
+
+  // produces the perfect maze of the given size for the given seed
+  public MazeGrid generate(int width, int height, long seed) {
+    MazeGrid grid = new MazeGrid(width, height);
+    new WilsonGenerator().generate(grid, seed);
+    return grid;
+  }
+
+  // replaces the passages of the given grid with the maze for the given seed
+  public void generate(MazeGrid grid, long seed) {
+    int width = grid.width;
+    int height = grid.height;
+    int cells = grid.cells();
+    if (this.exit.length != cells) {
+      this.inMaze = new long[(cells + 63) >>> 6];
+      this.exit = new int[cells];
+    }
+    else {
+      Arrays.fill(this.inMaze, 0L);
+    }
+    grid.clear();
+    SplittableRandom rand = new SplittableRandom(seed);
+    long[] inMaze = this.inMaze;
+    int[] exit = this.exit;
+    int[] options = this.options;
+    int root = rand.nextInt(cells);
+    inMaze[root >>> 6] |= 1L << root;
+
+    for (int start = 0; start < cells; start++) {
+      if (BacktrackerGenerator.isSeen(inMaze, start)) {
+        continue;
+      }
+      int cell = start;
+      while (!BacktrackerGenerator.isSeen(inMaze, cell)) {
+        int x = grid.x(cell);
+        int y = grid.y(cell);
+        int n = 0;
+        if (x + 1 < width) {
+          options[n++] = cell + 1;
+        }
+        if (y + 1 < height) {
+          options[n++] = cell + width;
+        }
+        if (x > 0) {
+          options[n++] = cell - 1;
+        }
+        if (y > 0) {
+          options[n++] = cell - width;
+        }
+        exit[cell] = options[rand.nextInt(n)];
+        cell = exit[cell];
+      }
+      for (cell = start; !BacktrackerGenerator.isSeen(inMaze, cell); cell = exit[cell]) {
+        inMaze[cell >>> 6] |= 1L << cell;
+        grid.open(grid.edgeId(cell, exit[cell]));
+      }
+    }
+  }
+}